@@ -0,0 +1,370 @@
+package ls_mybatis.processor;
+
+import ls_mybatis.annotation.Column;
+import ls_mybatis.annotation.Exclude;
+import ls_mybatis.annotation.Id;
+import ls_mybatis.annotation.Table;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * 编译期为每个 @Table 实体生成 实体类名_Mapper(实现 EntityMapper)
+ * 包含预先拼好的 INSERT/UPDATE/REPLACE 语句、类型化的结果集读取、参数绑定和字段列名表
+ * 字段访问走 getter/setter，实体不满足条件时不生成，运行时回退到反射
+ *
+ * @author 29002
+ */
+@SupportedAnnotationTypes("ls_mybatis.annotation.*")
+public class TableProcessor extends AbstractProcessor {
+
+    private static final String SUFFIX = "_Mapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Table.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement entity = (TypeElement) element;
+            List<Property> properties = collectProperties(entity);
+            if (properties == null) {
+                continue;
+            }
+            try {
+                generate(entity, properties);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "无法生成 " + entity + SUFFIX + ": " + e.getMessage(), entity);
+            }
+        }
+        // ls_mybatis 的注解只由本处理器处理，声明已处理以免 -Xlint:processing 告警
+        return true;
+    }
+
+    // 实体的一个字段
+    private static class Property {
+        String name;
+        String column;
+        TypeMirror type;
+        boolean excluded;
+        boolean id;
+        boolean lazy;
+        // 读取字段值的表达式
+        String getter;
+        // 设置字段值的语句模板，%s 为值
+        String setter;
+    }
+
+    // 收集实体字段，实体无法生成映射器时返回 null
+    private List<Property> collectProperties(TypeElement entity) {
+        if (entity.getModifiers().contains(Modifier.ABSTRACT)
+                || entity.getModifiers().contains(Modifier.PRIVATE)
+                || (entity.getNestingKind() == NestingKind.MEMBER && !entity.getModifiers().contains(Modifier.STATIC))
+                || !hasNoArgConstructor(entity)) {
+            note(entity, "无法通过无参构造方法实例化");
+            return null;
+        }
+        List<ExecutableElement> methods = ElementFilter.methodsIn(entity.getEnclosedElements());
+        List<Property> properties = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            Property property = new Property();
+            property.name = field.getSimpleName().toString();
+            property.type = field.asType();
+            property.excluded = field.getAnnotation(Exclude.class) != null;
+            property.id = field.getAnnotation(Id.class) != null;
+            property.lazy = field.getAnnotation(Column.class) != null && field.getAnnotation(Column.class).lazy();
+            property.column = getColumnName(field);
+            properties.add(property);
+
+            String capitalized = Character.toUpperCase(property.name.charAt(0)) + property.name.substring(1);
+            boolean direct = !field.getModifiers().contains(Modifier.PRIVATE);
+            ExecutableElement getter = findMethod(methods, "get" + capitalized, null);
+            if (getter == null && property.type.getKind() == TypeKind.BOOLEAN) {
+                getter = findMethod(methods, "is" + capitalized, null);
+            }
+            ExecutableElement setter = findMethod(methods, "set" + capitalized, property.type);
+            // 被忽略的字段只有作为主键时才需要访问
+            if ((getter == null || setter == null) && !direct && (!property.excluded || property.id)) {
+                note(entity, "字段 " + property.name + " 缺少 getter/setter");
+                return null;
+            }
+            property.getter = getter != null ? "obj." + getter.getSimpleName() + "()" : "obj." + property.name;
+            property.setter = setter != null ? "obj." + setter.getSimpleName() + "(%s);" : "obj." + property.name + " = %s;";
+        }
+        return properties;
+    }
+
+    private boolean hasNoArgConstructor(TypeElement entity) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(entity.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ExecutableElement findMethod(List<ExecutableElement> methods, String name, TypeMirror parameterType) {
+        for (ExecutableElement method : methods) {
+            if (!method.getSimpleName().contentEquals(name)
+                    || method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (parameterType == null && method.getParameters().isEmpty()) {
+                return method;
+            }
+            if (parameterType != null && method.getParameters().size() == 1
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), parameterType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private void note(TypeElement entity, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "实体类 " + entity + " " + reason + "，不生成映射器，运行时回退到反射", entity);
+    }
+
+    // 与 JDBCUtils.getColumnName 规则一致
+    private static String getColumnName(VariableElement field) {
+        Column column = field.getAnnotation(Column.class);
+        if (column != null && !column.value().isEmpty()) {
+            return column.value();
+        }
+        return camelToSnakeCase(field.getSimpleName().toString());
+    }
+
+    // 与 JDBCUtils.camelToSnakeCase 规则一致
+    private static String camelToSnakeCase(String str) {
+        return str.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    private void generate(TypeElement entity, List<Property> properties) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(entity).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+        String mapperName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String entityName = entity.getQualifiedName().toString();
+
+        Table table = entity.getAnnotation(Table.class);
+        String tableName = table.value().isEmpty() ? entity.getSimpleName().toString() : table.value();
+
+        List<Property> columns = new ArrayList<>();
+        Property primaryKey = null;
+        for (Property property : properties) {
+            if (property.id && primaryKey == null) {
+                primaryKey = property;
+            }
+            if (!property.excluded) {
+                columns.add(property);
+            }
+        }
+
+        StringJoiner columnList = new StringJoiner(", ");
+        StringJoiner placeholders = new StringJoiner(", ");
+        StringJoiner assignments = new StringJoiner(", ");
+        StringJoiner eagerColumns = new StringJoiner(", ");
+        boolean hasLazy = false;
+        for (Property column : columns) {
+            columnList.add(column.column);
+            placeholders.add("?");
+            assignments.add(column.column + " = ?");
+            if (column.lazy) {
+                hasLazy = true;
+            } else {
+                eagerColumns.add(column.column);
+            }
+        }
+        String insertSql = "INSERT INTO " + tableName + " (" + columnList + ") VALUES (" + placeholders + ")";
+        String replaceSql = "REPLACE INTO " + tableName + " (" + columnList + ") VALUES (" + placeholders + ")";
+        // 与反射实现一致，WHERE 条件使用主键字段名
+        String updateSql = primaryKey == null ? null
+                : "UPDATE " + tableName + " SET " + assignments + " WHERE " + primaryKey.name + " = ?";
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                (packageName.isEmpty() ? "" : packageName + ".") + mapperName, entity);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import ls_mybatis.core.EntityMapper;");
+            out.println();
+            out.println("import java.sql.PreparedStatement;");
+            out.println("import java.sql.ResultSet;");
+            out.println("import java.sql.SQLException;");
+            out.println();
+            out.println("// 由 ls-mybatis-processor 生成，请勿修改");
+            out.println("public final class " + mapperName + " implements EntityMapper<" + entityName + "> {");
+            out.println();
+            printStringMethod(out, "tableName", tableName);
+            printStringMethod(out, "insertSql", insertSql);
+            printStringMethod(out, "updateSql", updateSql);
+            printStringMethod(out, "replaceSql", replaceSql);
+            printStringMethod(out, "selectColumns", hasLazy ? eagerColumns.toString() : "*");
+
+            out.println("    @Override");
+            out.println("    public boolean hasLazyColumns() {");
+            out.println("        return " + hasLazy + ";");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public String columnOf(String fieldName) {");
+            out.println("        switch (fieldName) {");
+            for (Property property : properties) {
+                out.println("            case " + literal(property.name) + ":");
+                out.println("                return " + literal(queryColumn(entity, property.name)) + ";");
+            }
+            out.println("            default:");
+            out.println("                return null;");
+            out.println("        }");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public " + entityName + " map(ResultSet rs) throws SQLException {");
+            out.println("        " + entityName + " obj = new " + entityName + "();");
+            for (int i = 0; i < columns.size(); i++) {
+                if (!columns.get(i).lazy) {
+                    printRead(out, entity, columns.get(i), "v" + i);
+                }
+            }
+            out.println("        return obj;");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public void bindInsert(PreparedStatement pstmt, " + entityName + " obj) throws SQLException {");
+            for (int i = 0; i < columns.size(); i++) {
+                printBind(out, columns.get(i), i + 1);
+            }
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public void bindUpdate(PreparedStatement pstmt, " + entityName + " obj) throws SQLException {");
+            if (primaryKey == null) {
+                out.println("        throw new IllegalStateException(" + literal("实体类" + entityName + "没有指定主键") + ");");
+            } else {
+                for (int i = 0; i < columns.size(); i++) {
+                    printBind(out, columns.get(i), i + 1);
+                }
+                out.println("        pstmt.setObject(" + (columns.size() + 1) + ", " + primaryKey.getter + ");");
+            }
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    // 与 FieldUtil.getField 规则一致：有 @Column 且有值时取其值，否则为字段名
+    private static String queryColumn(TypeElement entity, String fieldName) {
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            if (field.getSimpleName().contentEquals(fieldName)) {
+                Column column = field.getAnnotation(Column.class);
+                if (column != null && !column.value().isEmpty()) {
+                    return column.value();
+                }
+            }
+        }
+        return fieldName;
+    }
+
+    private static void printStringMethod(PrintWriter out, String name, String value) {
+        out.println("    @Override");
+        out.println("    public String " + name + "() {");
+        out.println("        return " + (value == null ? "null" : literal(value)) + ";");
+        out.println("    }");
+        out.println();
+    }
+
+    // 按字段类型生成结果集读取，空值保持字段默认值，与 JDBCUtils.setFieldValue 支持的类型一致
+    private void printRead(PrintWriter out, TypeElement entity, Property property, String var) {
+        String column = literal(property.column);
+        String type = property.type.toString();
+        switch (type) {
+            case "java.lang.String" -> {
+                out.println("        String " + var + " = rs.getString(" + column + ");");
+                printSetIfNotNull(out, property, var, var);
+            }
+            case "int", "java.lang.Integer" -> printPrimitiveRead(out, property, var, "int", "getInt", column);
+            case "long", "java.lang.Long" -> printPrimitiveRead(out, property, var, "long", "getLong", column);
+            case "double", "java.lang.Double" -> printPrimitiveRead(out, property, var, "double", "getDouble", column);
+            case "boolean", "java.lang.Boolean" -> printPrimitiveRead(out, property, var, "boolean", "getBoolean", column);
+            case "java.util.Date" -> {
+                out.println("        java.sql.Timestamp " + var + " = rs.getTimestamp(" + column + ");");
+                printSetIfNotNull(out, property, var, "new java.util.Date(" + var + ".getTime())");
+            }
+            case "byte[]" -> {
+                out.println("        byte[] " + var + " = rs.getBytes(" + column + ");");
+                printSetIfNotNull(out, property, var, var);
+            }
+            default -> processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    property.name + " 不支持类型: " + type + "，查询时不会赋值", entity);
+        }
+    }
+
+    private static void printPrimitiveRead(PrintWriter out, Property property, String var, String primitive, String method, String column) {
+        out.println("        " + primitive + " " + var + " = rs." + method + "(" + column + ");");
+        out.println("        if (!rs.wasNull()) {");
+        out.println("            " + String.format(property.setter, var));
+        out.println("        }");
+    }
+
+    private static void printSetIfNotNull(PrintWriter out, Property property, String var, String value) {
+        out.println("        if (" + var + " != null) {");
+        out.println("            " + String.format(property.setter, value));
+        out.println("        }");
+    }
+
+    private static void printBind(PrintWriter out, Property property, int index) {
+        String method = switch (property.type.toString()) {
+            case "java.lang.String" -> "setString";
+            case "byte[]" -> "setBytes";
+            case "int" -> "setInt";
+            case "long" -> "setLong";
+            case "double" -> "setDouble";
+            case "boolean" -> "setBoolean";
+            default -> "setObject";
+        };
+        out.println("        pstmt." + method + "(" + index + ", " + property.getter + ");");
+    }
+
+    // 生成 Java 字符串字面量，非 ASCII 字符转义，避免受编译编码影响
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -0,0 +1,303 @@
+package ls_mybatis.processor;
+
+import ls_mybatis.core.EntityMapper;
+import ls_mybatis.core.EntityMappers;
+import ls_mybatis.utils.JDBCUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用处理器编译示例实体，将生成的映射器与反射实现(不运行处理器编译的同一实体)逐项比较
+ */
+class TableProcessorTest {
+
+    private static final String USER = """
+            package sample;
+
+            import ls_mybatis.annotation.*;
+
+            @Table("t_user")
+            public class User {
+                @Id
+                Integer id;
+                @Column("user_name")
+                String userName;
+                int loginCount;
+                Integer score;
+                boolean active;
+                Double balance;
+                byte[] avatar;
+                @Column(lazy = true)
+                String bio;
+                @Exclude
+                String remark;
+            }
+            """;
+
+    private static final String OUTER = """
+            package sample;
+
+            import ls_mybatis.annotation.*;
+
+            public class Outer {
+                @Table("t_inner")
+                public static class Inner {
+                    @Id
+                    private long id;
+                    private String innerName;
+
+                    public long getId() {
+                        return id;
+                    }
+
+                    public void setId(long id) {
+                        this.id = id;
+                    }
+
+                    public String getInnerName() {
+                        return innerName;
+                    }
+
+                    public void setInnerName(String innerName) {
+                        this.innerName = innerName;
+                    }
+                }
+            }
+            """;
+
+    // 运行处理器编译的类，有生成的映射器
+    private static ClassLoader generated;
+    // 不运行处理器编译的类，JDBCUtils 回退到反射
+    private static ClassLoader reflective;
+
+    @BeforeAll
+    static void compile(@TempDir Path dir) throws Exception {
+        Path sources = dir.resolve("src/sample");
+        Files.createDirectories(sources);
+        Files.writeString(sources.resolve("User.java"), USER);
+        Files.writeString(sources.resolve("Outer.java"), OUTER);
+        generated = compile(dir, "generated", true);
+        reflective = compile(dir, "reflective", false);
+
+        try (Statement stmt = JDBCUtils.getConnection().createStatement()) {
+            stmt.execute("CREATE TABLE t_user(id INT PRIMARY KEY, user_name VARCHAR(20), login_count INT, score INT,"
+                    + " active BOOLEAN, balance DOUBLE, avatar VARBINARY(16), bio CLOB)");
+            stmt.execute("CREATE TABLE t_inner(id BIGINT PRIMARY KEY, inner_name VARCHAR(20))");
+        }
+    }
+
+    private static ClassLoader compile(Path dir, String name, boolean process) throws IOException {
+        Path out = Files.createDirectories(dir.resolve(name));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<Path> files;
+            try (var stream = Files.list(dir.resolve("src/sample"))) {
+                files = stream.sorted(Comparator.naturalOrder()).toList();
+            }
+            List<String> options = new ArrayList<>(List.of("-Xlint:all", "-Werror",
+                    "-classpath", System.getProperty("java.class.path"), "-d", out.toString()));
+            if (!process) {
+                options.add("-proc:none");
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromPaths(files));
+            if (process) {
+                task.setProcessors(List.of(new TableProcessor()));
+            }
+            boolean success = task.call();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                assertNotEquals(Diagnostic.Kind.WARNING, diagnostic.getKind(), diagnostic.toString());
+                assertNotEquals(Diagnostic.Kind.MANDATORY_WARNING, diagnostic.getKind(), diagnostic.toString());
+            }
+            assertTrue(success, diagnostics.getDiagnostics().toString());
+        }
+        return new URLClassLoader(new URL[]{out.toUri().toURL()}, TableProcessorTest.class.getClassLoader());
+    }
+
+    private static EntityMapper<?> mapper(String className) throws ClassNotFoundException {
+        return EntityMappers.get(generated.loadClass(className));
+    }
+
+    @Test
+    void generatesSqlMatchingReflectivePath() throws Exception {
+        EntityMapper<?> mapper = mapper("sample.User");
+        assertNotNull(mapper);
+        assertNull(EntityMappers.get(reflective.loadClass("sample.User")));
+        assertEquals("t_user", mapper.tableName());
+        assertEquals("INSERT INTO t_user (id, user_name, login_count, score, active, balance, avatar, bio)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)", mapper.insertSql());
+        assertEquals("REPLACE INTO t_user (id, user_name, login_count, score, active, balance, avatar, bio)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)", mapper.replaceSql());
+        assertEquals("UPDATE t_user SET id = ?, user_name = ?, login_count = ?, score = ?, active = ?,"
+                + " balance = ?, avatar = ?, bio = ? WHERE id = ?", mapper.updateSql());
+    }
+
+    @Test
+    void columnOfFollowsFieldUtilRule() throws Exception {
+        EntityMapper<?> mapper = mapper("sample.User");
+        // 与 FieldUtil.getField 一致：有 @Column 值取其值，否则为字段名(不做驼峰转换)
+        Map<String, String> expected = Map.of(
+                "id", "id",
+                "userName", "user_name",
+                "loginCount", "loginCount",
+                "score", "score",
+                "active", "active",
+                "balance", "balance",
+                "avatar", "avatar",
+                "bio", "bio",
+                "remark", "remark");
+        expected.forEach((field, column) -> assertEquals(column, mapper.columnOf(field), field));
+        assertNull(mapper.columnOf("missing"));
+    }
+
+    @Test
+    void lazyColumnsAreSkipped() throws Exception {
+        EntityMapper<?> mapper = mapper("sample.User");
+        assertTrue(mapper.hasLazyColumns());
+        assertEquals("id, user_name, login_count, score, active, balance, avatar", mapper.selectColumns());
+        assertFalse(mapper("sample.Outer$Inner").hasLazyColumns());
+        assertEquals("*", mapper("sample.Outer$Inner").selectColumns());
+
+        try (Statement stmt = JDBCUtils.getConnection().createStatement()) {
+            stmt.execute("INSERT INTO t_user(id, bio) VALUES (100, 'long text')");
+        }
+        try (Statement stmt = JDBCUtils.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM t_user WHERE id = 100")) {
+            assertTrue(rs.next());
+            assertNull(field(mapper.map(rs), "bio"));
+        }
+    }
+
+    @Test
+    void mapsRowsLikeReflectivePath() throws Exception {
+        try (Statement stmt = JDBCUtils.getConnection().createStatement()) {
+            stmt.execute("INSERT INTO t_user VALUES (1, 'alice', 3, 90, TRUE, 12.5, X'0102', 'bio')");
+            // 空值：基本类型保持默认值，包装类型保持 null
+            stmt.execute("INSERT INTO t_user(id) VALUES (2)");
+        }
+        Class<?> withMapper = generated.loadClass("sample.User");
+        Class<?> withReflection = reflective.loadClass("sample.User");
+        for (int id = 1; id <= 2; id++) {
+            Object fromMapper = selectById(withMapper, id);
+            Object fromReflection = selectById(withReflection, id);
+            for (Field field : withMapper.getDeclaredFields()) {
+                assertTrue(Objects.deepEquals(field(fromMapper, field.getName()), field(fromReflection, field.getName())),
+                        "id=" + id + " " + field.getName());
+            }
+        }
+        Object empty = selectById(withMapper, 2);
+        assertEquals(0, field(empty, "loginCount"));
+        assertNull(field(empty, "score"));
+        assertEquals(false, field(empty, "active"));
+        assertNull(field(empty, "balance"));
+        assertNull(field(empty, "userName"));
+    }
+
+    @Test
+    void writesRowsLikeReflectivePath() throws Exception {
+        Class<?> withMapper = generated.loadClass("sample.User");
+        Class<?> withReflection = reflective.loadClass("sample.User");
+        assertEquals(1, JDBCUtils.insert(newUser(withMapper, 11)));
+        assertEquals(1, JDBCUtils.insert(newUser(withReflection, 12)));
+        assertEquals(row(11), row(12));
+    }
+
+    @Test
+    void nestedClassUsesBinaryName() throws Exception {
+        Class<?> inner = generated.loadClass("sample.Outer$Inner");
+        EntityMapper<?> mapper = EntityMappers.get(inner);
+        assertNotNull(mapper);
+        assertEquals("sample.Outer$Inner_Mapper", mapper.getClass().getName());
+        assertEquals("UPDATE t_inner SET id = ?, inner_name = ? WHERE id = ?", mapper.updateSql());
+
+        Object entity = inner.getDeclaredConstructor().newInstance();
+        inner.getMethod("setId", long.class).invoke(entity, 7L);
+        inner.getMethod("setInnerName", String.class).invoke(entity, "nested");
+        assertEquals(1, JDBCUtils.insert(entity));
+        List<?> rows = JDBCUtils.select(inner);
+        assertEquals(1, rows.size());
+        assertEquals("nested", inner.getMethod("getInnerName").invoke(rows.get(0)));
+    }
+
+    private static Object newUser(Class<?> clazz, int id) throws Exception {
+        Object user = clazz.getDeclaredConstructor().newInstance();
+        setField(user, "id", id);
+        setField(user, "userName", "bob");
+        setField(user, "loginCount", 5);
+        setField(user, "active", true);
+        setField(user, "avatar", new byte[]{3, 4});
+        setField(user, "remark", "ignored");
+        return user;
+    }
+
+    private static Object selectById(Class<?> clazz, int id) throws SQLException {
+        for (Object entity : JDBCUtils.select(clazz)) {
+            if (Objects.equals(field(entity, "id"), id)) {
+                return entity;
+            }
+        }
+        fail("id=" + id + " 不存在");
+        return null;
+    }
+
+    // 除主键外的整行数据
+    private static List<Object> row(int id) throws SQLException {
+        try (PreparedStatement pstmt = JDBCUtils.getConnection().prepareStatement(
+                "SELECT user_name, login_count, score, active, balance, avatar, bio FROM t_user WHERE id = ?")) {
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                List<Object> values = new ArrayList<>();
+                for (int i = 1; i <= 7; i++) {
+                    Object value = rs.getObject(i);
+                    values.add(value instanceof byte[] bytes ? List.of(bytes[0], bytes[1]) : value);
+                }
+                return values;
+            }
+        }
+    }
+
+    private static Object field(Object obj, String name) {
+        try {
+            Field field = obj.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(obj);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void setField(Object obj, String name, Object value) throws ReflectiveOperationException {
+        Field field = obj.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(obj, value);
+    }
+}
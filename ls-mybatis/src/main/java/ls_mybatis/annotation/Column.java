@@ -12,4 +12,11 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Column {
     String value() default "";
+
+    /**
+     * 懒加载，用于大字段(TEXT/BLOB)
+     * 查询时不包含该列，通过 JDBCUtils.load 按主键加载，
+     * 或通过 JDBCUtils.openInputStream/openReader 流式读取
+     */
+    boolean lazy() default false;
 }
@@ -0,0 +1,25 @@
+package ls_mybatis.core;
+
+/**
+ * CSV 导入中途失败(如数据库连接断开、暂时性错误重试后仍失败)
+ * 导入按批次提交，失败前已提交的批次不会回滚，getResult() 为失败时的进度
+ *
+ * @author 29002
+ */
+public class CsvImportException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    // CsvImportResult 不可序列化，序列化后为 null
+    private final transient CsvImportResult result;
+
+    public CsvImportException(String message, Throwable cause, CsvImportResult result) {
+        super(message, cause);
+        this.result = result;
+    }
+
+    // 失败时的进度，getRowsImported() 为已提交的行数
+    public CsvImportResult getResult() {
+        return result;
+    }
+}
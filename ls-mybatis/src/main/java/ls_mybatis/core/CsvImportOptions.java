@@ -0,0 +1,135 @@
+package ls_mybatis.core;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * JDBCUtils.importCsv 的配置，支持链式调用
+ *
+ * @author 29002
+ */
+public class CsvImportOptions {
+
+    private char delimiter = ',';
+    private boolean header = true;
+    private Charset charset = StandardCharsets.UTF_8;
+    private int chunkSize = 16 * 1024 * 1024;
+    private int parserThreads = Runtime.getRuntime().availableProcessors();
+    private int writerThreads = 4;
+    private int batchSize = 500;
+    private int queueCapacity = 16;
+    private long progressIntervalMillis = 1000;
+    private int maxRejectedSamples = 100;
+    private Consumer<CsvImportResult> progressListener;
+
+    // 列分隔符，默认逗号
+    public CsvImportOptions delimiter(char delimiter) {
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    // 第一行是否为表头，是则按表头匹配列名或字段名，否则按实体字段顺序，默认 true
+    public CsvImportOptions header(boolean header) {
+        this.header = header;
+        return this;
+    }
+
+    // 文件编码，需要兼容 ASCII 换行符(如 UTF-8、GBK)，默认 UTF-8
+    public CsvImportOptions charset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    // 每个内存映射分块的大致字节数，实际在其后的第一个换行处切分，默认 16MB
+    public CsvImportOptions chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    // 解析线程数，默认 CPU 核数
+    public CsvImportOptions parserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+        return this;
+    }
+
+    // 写入线程数，每个线程使用一个独立的主库连接，默认 4
+    public CsvImportOptions writerThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+        return this;
+    }
+
+    // 每条多行 INSERT 包含的行数，默认 500
+    public CsvImportOptions batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    // 解析与写入之间最多缓存的批次数，默认 16
+    public CsvImportOptions queueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    // 进度回调，每隔 progressIntervalMillis 调用一次，成功结束时再调用一次(isFinished 为 true，且一定是最后一次)；回调不会并发执行
+    public CsvImportOptions onProgress(Consumer<CsvImportResult> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    // 进度回调间隔(毫秒)，默认 1000
+    public CsvImportOptions progressIntervalMillis(long progressIntervalMillis) {
+        this.progressIntervalMillis = progressIntervalMillis;
+        return this;
+    }
+
+    // 最多保留的被拒绝行明细数，超出的只计数，默认 100
+    public CsvImportOptions maxRejectedSamples(int maxRejectedSamples) {
+        this.maxRejectedSamples = maxRejectedSamples;
+        return this;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public Consumer<CsvImportResult> getProgressListener() {
+        return progressListener;
+    }
+
+    public long getProgressIntervalMillis() {
+        return progressIntervalMillis;
+    }
+
+    public int getMaxRejectedSamples() {
+        return maxRejectedSamples;
+    }
+}
@@ -0,0 +1,109 @@
+package ls_mybatis.core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CSV 导入的进度快照，导入结束时为最终结果
+ *
+ * @author 29002
+ */
+public class CsvImportResult {
+
+    private final long totalBytes;
+    private final long bytesRead;
+    private final long rowsImported;
+    private final long rejectedLines;
+    private final long elapsedMillis;
+    private final boolean finished;
+    private final List<RejectedLine> rejectedSamples;
+
+    public CsvImportResult(long totalBytes, long bytesRead, long rowsImported, long rejectedLines,
+                           long elapsedMillis, boolean finished, List<RejectedLine> rejectedSamples) {
+        this.totalBytes = totalBytes;
+        this.bytesRead = bytesRead;
+        this.rowsImported = rowsImported;
+        this.rejectedLines = rejectedLines;
+        this.elapsedMillis = elapsedMillis;
+        this.finished = finished;
+        this.rejectedSamples = Collections.unmodifiableList(rejectedSamples);
+    }
+
+    // 文件总字节数
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    // 已解析的字节数
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    // 已写入数据库的行数
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    // 被拒绝的行数(解析失败或数据库拒绝)
+    public long getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // 平均每秒写入行数
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : rowsImported * 1000.0 / elapsedMillis;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // 被拒绝行的明细，最多 CsvImportOptions.maxRejectedSamples 条
+    public List<RejectedLine> getRejectedSamples() {
+        return rejectedSamples;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d 字节, 导入 %d 行, 拒绝 %d 行, %.0f 行/秒",
+                bytesRead, totalBytes, rowsImported, rejectedLines, getRowsPerSecond());
+    }
+
+    /**
+     * 被拒绝的行
+     */
+    public static class RejectedLine {
+        private final long offset;
+        private final String line;
+        private final String reason;
+
+        public RejectedLine(long offset, String line, String reason) {
+            this.offset = offset;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        // 该行在文件中的起始字节位置
+        public long getOffset() {
+            return offset;
+        }
+
+        // 该行原文
+        public String getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "@" + offset + " " + reason + ": " + line;
+        }
+    }
+}
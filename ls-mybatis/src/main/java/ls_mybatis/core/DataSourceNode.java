@@ -0,0 +1,121 @@
+package ls_mybatis.core;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个数据源节点(主库或从库)
+ * 持有一个懒加载的共享连接，并记录正在执行的请求数与健康状态
+ *
+ * @author 29002
+ */
+public class DataSourceNode {
+
+    private final String name;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Connection connection;
+    // 已废弃但仍可能有请求在使用的连接，等正在执行的请求结束后关闭
+    private final List<Connection> retired = new ArrayList<>();
+    // 被剔除到该时间点(毫秒)为止，0 表示健康
+    private volatile long ejectedUntil;
+
+    public DataSourceNode(String name, String url, String username, String password) {
+        this.name = name;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    // 获取共享连接，连接不存在或已关闭时重新建立
+    public synchronized Connection getConnection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = DriverManager.getConnection(url, username, password);
+        }
+        return connection;
+    }
+
+    // 建立一个独立的新连接，由调用方负责关闭，用于批量导入等需要多个连接并行的场景
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+
+    // 检测当前共享连接是否仍然可用，不会重新建立连接
+    public boolean isAlive() {
+        Connection current;
+        synchronized (this) {
+            current = connection;
+        }
+        try {
+            return current != null && !current.isClosed() && current.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // 废弃当前共享连接，下次获取时重新建立；仍有请求在执行时延后关闭
+    public synchronized void discardConnection() {
+        if (connection == null) {
+            return;
+        }
+        if (inFlight.get() == 0) {
+            closeQuietly(connection);
+        } else {
+            retired.add(connection);
+        }
+        connection = null;
+    }
+
+    // 剔除节点并废弃可能已经损坏的连接，恢复后重新建立
+    public void eject(long millis) {
+        ejectedUntil = System.currentTimeMillis() + millis;
+        discardConnection();
+    }
+
+    public boolean isHealthy() {
+        return System.currentTimeMillis() >= ejectedUntil;
+    }
+
+    public void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    public void release() {
+        if (inFlight.decrementAndGet() == 0) {
+            closeRetired();
+        }
+    }
+
+    private synchronized void closeRetired() {
+        if (inFlight.get() == 0) {
+            retired.forEach(DataSourceNode::closeQuietly);
+            retired.clear();
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + url + ")";
+    }
+}
@@ -0,0 +1,50 @@
+package ls_mybatis.core;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 实体映射器，由 ls-mybatis-processor 在编译期为每个 @Table 实体生成(实体类名_Mapper)
+ * 存在时 JDBCUtils 直接使用其中预先拼好的 SQL 和类型化的读写，不再通过反射
+ *
+ * @param <T> 实体类的类型
+ * @author 29002
+ */
+public interface EntityMapper<T> {
+
+    // 表名
+    String tableName();
+
+    // INSERT INTO 表名 (列...) VALUES (?...)
+    String insertSql();
+
+    // UPDATE 表名 SET 列 = ?... WHERE 主键 = ?，没有主键时为 null
+    String updateSql();
+
+    // REPLACE INTO 表名 (列...) VALUES (?...)
+    String replaceSql();
+
+    // SELECT 的列，不含懒加载列，没有懒加载列时为 *
+    String selectColumns();
+
+    // 是否有 @Column(lazy = true) 的列
+    boolean hasLazyColumns();
+
+    /**
+     * 字段对应的列名，与 FieldUtil.getField 的规则一致：有 @Column 取其值，否则为字段名
+     *
+     * @param fieldName 字段名
+     * @return 列名，字段不存在时返回 null
+     */
+    String columnOf(String fieldName);
+
+    // 将结果集当前行映射为实体对象，懒加载列不赋值
+    T map(ResultSet rs) throws SQLException;
+
+    // 按 insertSql/replaceSql 的列顺序绑定参数
+    void bindInsert(PreparedStatement pstmt, T obj) throws SQLException;
+
+    // 按 updateSql 的列顺序绑定参数，最后一个参数为主键
+    void bindUpdate(PreparedStatement pstmt, T obj) throws SQLException;
+}
@@ -0,0 +1,44 @@
+package ls_mybatis.core;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查找编译期生成的实体映射器，结果按实体类缓存
+ *
+ * @author 29002
+ */
+public class EntityMappers {
+
+    public static final String SUFFIX = "_Mapper";
+
+    private static final Map<Class<?>, Optional<EntityMapper<?>>> CACHE = new ConcurrentHashMap<>();
+
+    private EntityMappers() {
+    }
+
+    /**
+     * 获取实体类的映射器
+     *
+     * @param clazz 实体类的 Class 对象
+     * @param <T>   实体类的类型
+     * @return 生成的映射器，没有生成时返回 null，调用方回退到反射
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMapper<T> get(Class<T> clazz) {
+        return (EntityMapper<T>) CACHE.computeIfAbsent(clazz, EntityMappers::load).orElse(null);
+    }
+
+    private static Optional<EntityMapper<?>> load(Class<?> clazz) {
+        try {
+            Class<?> mapperClass = Class.forName(clazz.getName() + SUFFIX, true, clazz.getClassLoader());
+            if (!EntityMapper.class.isAssignableFrom(mapperClass)) {
+                return Optional.empty();
+            }
+            return Optional.of((EntityMapper<?>) mapperClass.getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package ls_mybatis.core;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 读写分离路由
+ * 写操作和事务内的操作走主库，读操作按负载均衡策略分发到健康的从库，
+ * 没有可用从库时回退到主库
+ *
+ * @author 29002
+ */
+public class ReadWriteRouter {
+    private static final Logger log = Logger.getLogger(ReadWriteRouter.class.getName());
+
+    /**
+     * 从库负载均衡策略
+     */
+    public enum Balance {
+        // 轮询
+        ROUND_ROBIN,
+        // 正在执行请求数最少
+        LEAST_IN_FLIGHT
+    }
+
+    private final DataSourceNode primary;
+    private final List<DataSourceNode> replicas;
+    private final Balance balance;
+    private final long ejectMillis;
+    // 写后读主库的时间窗口(毫秒)，0 表示关闭
+    private final long stickyMillis;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+    // 当前线程的事务连接
+    private final ThreadLocal<Connection> transaction = new ThreadLocal<>();
+
+    /**
+     * 在某个连接上执行的读操作
+     */
+    @FunctionalInterface
+    public interface ReadAction<R> {
+        R apply(Connection conn) throws SQLException;
+    }
+
+    public ReadWriteRouter(DataSourceNode primary, List<DataSourceNode> replicas, Balance balance, long ejectMillis, long stickyMillis) {
+        this.primary = primary;
+        this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+        this.balance = balance;
+        this.ejectMillis = ejectMillis;
+        this.stickyMillis = stickyMillis;
+    }
+
+    /**
+     * 根据配置文件创建路由
+     * 主库读取 db.primary.*，未配置时兼容 db.*；从库读取 db.replicas[n].*，未配置的项沿用主库的配置
+     *
+     * @param properties application.properties 的内容
+     * @return 读写分离路由
+     */
+    public static ReadWriteRouter fromProperties(Properties properties) {
+        String url = property(properties, "db.primary.url", "db.url");
+        String username = property(properties, "db.primary.username", "db.username");
+        String password = property(properties, "db.primary.password", "db.password");
+        loadDriver(property(properties, "db.primary.driver", "db.driver"));
+        DataSourceNode primary = new DataSourceNode("primary", url, username, password);
+
+        List<DataSourceNode> replicas = new ArrayList<>();
+        for (int i = 0; properties.getProperty("db.replicas[" + i + "].url") != null; i++) {
+            String prefix = "db.replicas[" + i + "].";
+            String driver = properties.getProperty(prefix + "driver");
+            if (driver != null) {
+                loadDriver(driver);
+            }
+            replicas.add(new DataSourceNode("replica-" + i,
+                    properties.getProperty(prefix + "url"),
+                    properties.getProperty(prefix + "username", username),
+                    properties.getProperty(prefix + "password", password)));
+        }
+
+        String balance = properties.getProperty("db.replicas.balance", "round-robin");
+        long ejectMillis = Long.parseLong(properties.getProperty("db.replicas.eject-millis", "30000"));
+        long stickyMillis = 0;
+        if (Boolean.parseBoolean(properties.getProperty("db.read-your-writes"))) {
+            stickyMillis = Long.parseLong(properties.getProperty("db.read-your-writes.millis", "3000"));
+        }
+        return new ReadWriteRouter(primary, replicas, Balance.valueOf(balance.trim().toUpperCase().replace('-', '_')), ejectMillis, stickyMillis);
+    }
+
+    private static String property(Properties properties, String key, String fallbackKey) {
+        String value = properties.getProperty(key);
+        return value != null ? value : properties.getProperty(fallbackKey);
+    }
+
+    private static void loadDriver(String driver) {
+        try {
+            Class.forName(driver);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("找不到数据库驱动程序: " + driver, e);
+        }
+    }
+
+    public DataSourceNode primary() {
+        return primary;
+    }
+
+    public List<DataSourceNode> replicas() {
+        return replicas;
+    }
+
+    /**
+     * 为读操作选择数据源
+     * 事务内、写后读窗口内或没有健康从库时返回主库，不会访问主库连接
+     *
+     * @return 执行读操作的节点
+     */
+    public DataSourceNode routeRead() {
+        if (replicas.isEmpty() || transaction.get() != null || isSticky()) {
+            return primary;
+        }
+        DataSourceNode chosen = null;
+        if (balance == Balance.LEAST_IN_FLIGHT) {
+            for (DataSourceNode node : replicas) {
+                if (node.isHealthy() && (chosen == null || node.getInFlight() < chosen.getInFlight())) {
+                    chosen = node;
+                }
+            }
+        } else {
+            int start = Math.floorMod(cursor.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size() && chosen == null; i++) {
+                DataSourceNode node = replicas.get((start + i) % replicas.size());
+                if (node.isHealthy()) {
+                    chosen = node;
+                }
+            }
+        }
+        return chosen != null ? chosen : primary;
+    }
+
+    /**
+     * 记录当前线程的写操作，开启写后读时该线程随后的读操作在时间窗口内走主库
+     */
+    public void markWrite() {
+        if (stickyMillis > 0) {
+            lastWrite.set(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 剔除出错的从库，在 db.replicas.eject-millis 之后重新参与路由
+     *
+     * @param node 出错的节点
+     */
+    public void markFailed(DataSourceNode node) {
+        if (node != primary) {
+            node.eject(ejectMillis);
+        }
+    }
+
+    /**
+     * 执行读操作
+     * 事务中使用事务连接；连接失效时换新连接重试一次，仍失败则剔除该从库并回退到主库
+     *
+     * @param action 读操作
+     * @return 读操作的结果
+     */
+    public <R> R read(ReadAction<R> action) throws SQLException {
+        Connection tx = transaction.get();
+        if (tx != null) {
+            return action.apply(tx);
+        }
+        DataSourceNode node = routeRead();
+        try {
+            return readOn(node, action);
+        } catch (SQLException e) {
+            // 连接正常说明是语句本身的错误
+            if (node.isAlive()) {
+                throw e;
+            }
+            node.discardConnection();
+        }
+        try {
+            return readOn(node, action);
+        } catch (SQLException e) {
+            if (node == primary || node.isAlive()) {
+                throw e;
+            }
+            log.log(Level.WARNING, "从库 " + node + " 不可用，已剔除: " + e.getMessage());
+            markFailed(node);
+            return readOn(primary, action);
+        }
+    }
+
+    private static <R> R readOn(DataSourceNode node, ReadAction<R> action) throws SQLException {
+        node.acquire();
+        try {
+            return action.apply(node.getConnection());
+        } finally {
+            node.release();
+        }
+    }
+
+    /**
+     * 开启当前线程的事务，使用一个独立的主库连接，事务内的读写都在该连接上执行
+     */
+    public void beginTransaction() throws SQLException {
+        if (transaction.get() != null) {
+            throw new IllegalStateException("当前线程已开启事务");
+        }
+        Connection conn = primary.openConnection();
+        conn.setAutoCommit(false);
+        transaction.set(conn);
+    }
+
+    // 当前线程的事务连接，没有事务时返回 null
+    public Connection transactionConnection() {
+        return transaction.get();
+    }
+
+    /**
+     * 结束当前线程的事务并关闭事务连接
+     *
+     * @param commit true 提交，false 回滚
+     */
+    public void endTransaction(boolean commit) throws SQLException {
+        Connection conn = transaction.get();
+        if (conn == null) {
+            throw new IllegalStateException("当前线程没有开启事务");
+        }
+        transaction.remove();
+        try (conn) {
+            if (commit) {
+                conn.commit();
+            } else {
+                conn.rollback();
+            }
+        }
+    }
+
+    private boolean isSticky() {
+        Long last = lastWrite.get();
+        if (last == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - last < stickyMillis) {
+            return true;
+        }
+        lastWrite.remove();
+        return false;
+    }
+}
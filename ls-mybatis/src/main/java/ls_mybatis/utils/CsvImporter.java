@@ -0,0 +1,527 @@
+package ls_mybatis.utils;
+
+import ls_mybatis.annotation.Exclude;
+import ls_mybatis.core.CsvImportException;
+import ls_mybatis.core.CsvImportOptions;
+import ls_mybatis.core.CsvImportResult;
+import ls_mybatis.core.DataSourceNode;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * CSV 批量导入流水线
+ * 主线程按换行切分文件并投递分块，解析线程通过内存映射读取分块并转换为列值，
+ * 写入线程各持有一个主库连接执行多行 INSERT，阶段之间使用有界队列
+ * 按换行切分，因此不支持引号内含换行的字段，这样的行会被拒绝
+ * 每批单独提交，中途失败时已提交的批次不会回滚
+ *
+ * @author 29002
+ */
+class CsvImporter {
+    private static final Logger log = Logger.getLogger(CsvImporter.class.getName());
+
+    // 单条语句的参数个数上限(MySQL 为 65535)
+    private static final int MAX_PARAMETERS = 65535;
+    // 暂时性错误(死锁、锁等待超时)的最多执行次数，每次重试前的等待时间翻倍
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_BACKOFF_MILLIS = 50;
+    private static final Chunk END_OF_CHUNKS = new Chunk(-1, -1);
+    private static final List<Row> END_OF_ROWS = new ArrayList<>();
+
+    private final Path path;
+    private final Class<?> clazz;
+    private final CsvImportOptions options;
+    private final DataSourceNode node;
+
+    // 写入的字段，顺序与 INSERT 的列一致
+    private final List<Field> targets = new ArrayList<>();
+    // CSV 第 i 列对应 targets 的下标，-1 表示忽略
+    private int[] columnTargets;
+    private int rowsPerStatement;
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder rowsImported = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final List<CsvImportResult.RejectedLine> rejectedSamples = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private long totalBytes;
+    private long startMillis;
+
+    // 文件中的一段，[start, end) 以换行结尾
+    private record Chunk(long start, long end) {
+    }
+
+    // 解析后的一行
+    private record Row(long offset, String line, Object[] values) {
+    }
+
+    CsvImporter(Path path, Class<?> clazz, CsvImportOptions options, DataSourceNode node) {
+        this.path = path;
+        this.clazz = clazz;
+        this.options = options;
+        this.node = node;
+    }
+
+    CsvImportResult run() throws IOException, InterruptedException {
+        startMillis = System.currentTimeMillis();
+        int parserThreads = Math.max(1, options.getParserThreads());
+        int writerThreads = Math.max(1, options.getWriterThreads());
+        BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(parserThreads * 2);
+        BlockingQueue<List<Row>> batches = new ArrayBlockingQueue<>(Math.max(1, options.getQueueCapacity()));
+        ExecutorService workers = Executors.newFixedThreadPool(parserThreads + writerThreads);
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            totalBytes = channel.size();
+            long position = 0;
+            if (options.isHeader()) {
+                position = findLineEnd(channel, 0);
+                resolveColumns(splitLine(readLine(channel, 0, position)));
+                bytesRead.add(position);
+            } else {
+                resolveColumns(null);
+            }
+
+            if (options.getProgressListener() != null) {
+                long interval = Math.max(1, options.getProgressIntervalMillis());
+                progress.scheduleAtFixedRate(() -> options.getProgressListener().accept(snapshot(false)),
+                        interval, interval, TimeUnit.MILLISECONDS);
+            }
+
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < writerThreads; i++) {
+                writers.add(workers.submit(() -> guard(() -> write(batches))));
+            }
+            List<Future<?>> parsers = new ArrayList<>();
+            for (int i = 0; i < parserThreads; i++) {
+                parsers.add(workers.submit(() -> guard(() -> parse(channel, chunks, batches))));
+            }
+
+            // 切分文件，每块在 chunkSize 之后的第一个换行处结束
+            try {
+                while (position < totalBytes) {
+                    long end = Math.min(totalBytes, position + Math.max(1, options.getChunkSize()));
+                    if (end < totalBytes) {
+                        end = findLineEnd(channel, end);
+                    }
+                    put(chunks, new Chunk(position, end));
+                    position = end;
+                }
+                for (int i = 0; i < parserThreads; i++) {
+                    put(chunks, END_OF_CHUNKS);
+                }
+                await(parsers);
+                for (int i = 0; i < writerThreads; i++) {
+                    put(batches, END_OF_ROWS);
+                }
+            } catch (RuntimeException | IOException e) {
+                failure.compareAndSet(null, e);
+            }
+            await(parsers);
+            await(writers);
+        } finally {
+            workers.shutdownNow();
+            // 停止定时回调并等待正在执行的一次结束，保证最终结果是最后一次回调
+            progress.shutdown();
+            while (!progress.awaitTermination(1, TimeUnit.SECONDS)) {
+                log.log(Level.FINE, "等待进度回调结束");
+            }
+        }
+
+        if (failure.get() != null) {
+            throw new CsvImportException("CSV 导入失败: " + path, failure.get(), snapshot(false));
+        }
+        CsvImportResult result = snapshot(true);
+        if (options.getProgressListener() != null) {
+            options.getProgressListener().accept(result);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    // 记录第一个失败，其它阶段在阻塞的队列操作上感知后退出
+    private void guard(Stage stage) {
+        try {
+            stage.run();
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private static void await(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ignored) {
+                // guard 已记录异常
+            }
+        }
+    }
+
+    private <E> void put(BlockingQueue<E> queue, E item) throws InterruptedException {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    private <E> E take(BlockingQueue<E> queue) throws InterruptedException {
+        E item;
+        while ((item = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+            checkFailure();
+        }
+        return item;
+    }
+
+    private void checkFailure() {
+        if (failure.get() != null) {
+            throw new IllegalStateException("导入已中止");
+        }
+    }
+
+    private CsvImportResult snapshot(boolean finished) {
+        List<CsvImportResult.RejectedLine> samples;
+        synchronized (rejectedSamples) {
+            samples = new ArrayList<>(rejectedSamples);
+        }
+        return new CsvImportResult(totalBytes, bytesRead.sum(), rowsImported.sum(), rejected.sum(),
+                System.currentTimeMillis() - startMillis, finished, samples);
+    }
+
+    private void reject(long offset, String line, String reason) {
+        rejected.increment();
+        synchronized (rejectedSamples) {
+            if (rejectedSamples.size() < options.getMaxRejectedSamples()) {
+                rejectedSamples.add(new CsvImportResult.RejectedLine(offset, line, reason));
+            }
+        }
+    }
+
+    // 有表头时按列名或字段名匹配(忽略大小写)，否则按实体字段顺序
+    private void resolveColumns(List<String> header) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Exclude.class) || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            fields.add(field);
+        }
+        if (header == null) {
+            targets.addAll(fields);
+            columnTargets = new int[fields.size()];
+            for (int i = 0; i < columnTargets.length; i++) {
+                columnTargets[i] = i;
+            }
+        } else {
+            columnTargets = new int[header.size()];
+            for (int i = 0; i < header.size(); i++) {
+                // 去掉 UTF-8 BOM
+                String name = header.get(i).replace("\uFEFF", "").trim();
+                columnTargets[i] = -1;
+                for (Field field : fields) {
+                    if (!targets.contains(field)
+                            && (JDBCUtils.getColumnName(field).equalsIgnoreCase(name) || field.getName().equalsIgnoreCase(name))) {
+                        columnTargets[i] = targets.size();
+                        targets.add(field);
+                        break;
+                    }
+                }
+                if (columnTargets[i] < 0) {
+                    log.log(Level.WARNING, "CSV 列 " + name + " 没有对应的字段，已忽略");
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("CSV 中没有与实体类" + clazz.getName() + "对应的列");
+        }
+        rowsPerStatement = Math.max(1, Math.min(options.getBatchSize(), MAX_PARAMETERS / targets.size()));
+    }
+
+    // 从 position 开始找到下一个换行，返回换行之后的位置
+    private long findLineEnd(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < totalBytes) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return totalBytes;
+    }
+
+    private String readLine(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        // 一次 read 可能读不满
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        String line = new String(buffer.array(), 0, buffer.position(), options.getCharset());
+        return line.replaceAll("[\r\n]+$", "");
+    }
+
+    private void parse(FileChannel channel, BlockingQueue<Chunk> chunks, BlockingQueue<List<Row>> batches) throws IOException, InterruptedException {
+        byte[] lineBytes = new byte[1024];
+        while (true) {
+            Chunk chunk = take(chunks);
+            if (chunk == END_OF_CHUNKS) {
+                return;
+            }
+            long length = chunk.end() - chunk.start();
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("单行过长，无法映射: 位置 " + chunk.start());
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), length);
+            List<Row> batch = new ArrayList<>(rowsPerStatement);
+            int limit = buffer.limit();
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && buffer.get(i) != '\n') {
+                    continue;
+                }
+                int lineLength = i - lineStart;
+                if (lineLength > 0 && buffer.get(lineStart + lineLength - 1) == '\r') {
+                    lineLength--;
+                }
+                if (lineLength > 0) {
+                    if (lineBytes.length < lineLength) {
+                        lineBytes = new byte[Math.max(lineLength, lineBytes.length * 2)];
+                    }
+                    buffer.get(lineStart, lineBytes, 0, lineLength);
+                    String line = new String(lineBytes, 0, lineLength, options.getCharset());
+                    Row row = parseRow(chunk.start() + lineStart, line);
+                    if (row != null) {
+                        batch.add(row);
+                        if (batch.size() == rowsPerStatement) {
+                            put(batches, batch);
+                            batch = new ArrayList<>(rowsPerStatement);
+                        }
+                    }
+                }
+                lineStart = i + 1;
+            }
+            if (!batch.isEmpty()) {
+                put(batches, batch);
+            }
+            bytesRead.add(length);
+        }
+    }
+
+    // 解析一行，失败时记录并返回 null
+    private Row parseRow(long offset, String line) {
+        List<String> values = splitLine(line);
+        if (values == null) {
+            reject(offset, line, "引号未闭合");
+            return null;
+        }
+        if (values.size() != columnTargets.length) {
+            reject(offset, line, "列数不匹配: 期望 " + columnTargets.length + " 实际 " + values.size());
+            return null;
+        }
+        Object[] row = new Object[targets.size()];
+        for (int i = 0; i < columnTargets.length; i++) {
+            int target = columnTargets[i];
+            if (target < 0) {
+                continue;
+            }
+            Field field = targets.get(target);
+            try {
+                row[target] = convert(values.get(i), field.getType());
+            } catch (IllegalArgumentException e) {
+                reject(offset, line, "字段 " + field.getName() + " 无法转换: " + e.getMessage());
+                return null;
+            }
+        }
+        return new Row(offset, line, row);
+    }
+
+    // 按分隔符拆分一行，支持双引号包裹和 "" 转义，引号未闭合时返回 null
+    private List<String> splitLine(String line) {
+        char delimiter = options.getDelimiter();
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    // 将文本转换为字段类型的值，非字符串类型的空值为 null
+    private static Object convert(String value, Class<?> type) {
+        if (type == String.class) {
+            return value;
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (type == Integer.class || type == int.class) {
+            return Integer.valueOf(value);
+        } else if (type == Long.class || type == long.class) {
+            return Long.valueOf(value);
+        } else if (type == Double.class || type == double.class) {
+            return Double.valueOf(value);
+        } else if (type == Boolean.class || type == boolean.class) {
+            if (value.equalsIgnoreCase("true") || value.equals("1")) {
+                return true;
+            } else if (value.equalsIgnoreCase("false") || value.equals("0")) {
+                return false;
+            }
+            throw new IllegalArgumentException("不是布尔值: " + value);
+        } else if (type == Date.class) {
+            // 毫秒时间戳(至少 12 位，20240101 这样的日期不会被当作时间戳)、yyyy-MM-dd 或 yyyy-MM-dd HH:mm:ss
+            if (value.length() >= 12 && value.chars().allMatch(Character::isDigit)) {
+                return new Timestamp(Long.parseLong(value));
+            } else if (value.length() == 10) {
+                return java.sql.Date.valueOf(value);
+            }
+            return Timestamp.valueOf(value.replace('T', ' '));
+        } else if (type == byte[].class) {
+            return Base64.getDecoder().decode(value);
+        }
+        return value;
+    }
+
+    private void write(BlockingQueue<List<Row>> batches) throws SQLException, InterruptedException {
+        try (Connection conn = node.openConnection()) {
+            conn.setAutoCommit(false);
+            String batchSql = buildInsertSql(rowsPerStatement);
+            String rowSql = buildInsertSql(1);
+            while (true) {
+                List<Row> batch = take(batches);
+                if (batch == END_OF_ROWS) {
+                    return;
+                }
+                String sql = batch.size() == rowsPerStatement ? batchSql : buildInsertSql(batch.size());
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    int parameterIndex = 1;
+                    for (Row row : batch) {
+                        for (Object value : row.values()) {
+                            pstmt.setObject(parameterIndex++, value);
+                        }
+                    }
+                    executeAndCommit(conn, pstmt);
+                    rowsImported.add(batch.size());
+                } catch (SQLException e) {
+                    // 重试后仍是暂时性错误或连接失效时中止导入
+                    if (isTransient(e) || !conn.isValid(2)) {
+                        throw e;
+                    }
+                    // 数据错误(如主键重复)时逐行写入，找出被数据库拒绝的行
+                    writeRows(conn, rowSql, batch);
+                }
+            }
+        }
+    }
+
+    private void writeRows(Connection conn, String sql, List<Row> batch) throws SQLException, InterruptedException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Row row : batch) {
+                try {
+                    for (int i = 0; i < row.values().length; i++) {
+                        pstmt.setObject(i + 1, row.values()[i]);
+                    }
+                    executeAndCommit(conn, pstmt);
+                    rowsImported.increment();
+                } catch (SQLException e) {
+                    if (isTransient(e) || !conn.isValid(2)) {
+                        throw e;
+                    }
+                    reject(row.offset(), row.line(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    // 执行并提交，失败时回滚；暂时性错误等待后重试，最多执行 MAX_ATTEMPTS 次
+    private static void executeAndCommit(Connection conn, PreparedStatement pstmt) throws SQLException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                pstmt.executeUpdate();
+                conn.commit();
+                return;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (!isTransient(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.log(Level.FINE, "暂时性错误，第 " + attempt + " 次重试: " + e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
+            }
+        }
+    }
+
+    // 死锁(SQLState 40001、MySQL 1213)、锁等待超时(MySQL 1205)等重试可能成功的错误
+    private static boolean isTransient(SQLException e) {
+        return e instanceof SQLTransientException
+                || "40001".equals(e.getSQLState())
+                || e.getErrorCode() == 1213
+                || e.getErrorCode() == 1205;
+    }
+
+    // INSERT INTO 表名 (列...) VALUES (?...), (?...)
+    private String buildInsertSql(int rows) {
+        StringJoiner columns = new StringJoiner(", ", "(", ")");
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (Field field : targets) {
+            columns.add(JDBCUtils.getColumnName(field));
+            placeholders.add("?");
+        }
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            values.add(placeholders.toString());
+        }
+        return "INSERT INTO " + JDBCUtils.getTableName(clazz) + " " + columns + " VALUES " + values;
+    }
+}
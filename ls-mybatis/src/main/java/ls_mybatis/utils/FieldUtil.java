@@ -1,6 +1,8 @@
 package ls_mybatis.utils;
 
 import ls_mybatis.annotation.Column;
+import ls_mybatis.core.EntityMapper;
+import ls_mybatis.core.EntityMappers;
 import ls_mybatis.core.SFunction;
 
 import java.lang.invoke.SerializedLambda;
@@ -14,6 +16,24 @@ import java.lang.reflect.Method;
 public class FieldUtil {
 
     public static <T> String getField(SFunction<T, ?> fn, Class<T> clazz) {
+        try {
+            return getFieldName(getSerializedLambda(fn), clazz);
+        } catch (NoSuchFieldException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 获取 get 方法引用对应的字段名(Java 属性名，不做列名转换)
+     *
+     * @param fn get 方法引用，例如 User::getName
+     * @return 字段名
+     */
+    public static <T> String getPropertyName(SFunction<T, ?> fn) {
+        return getFieldName(getSerializedLambda(fn).getImplMethodName());
+    }
+
+    private static SerializedLambda getSerializedLambda(SFunction<?, ?> fn) {
         try {
             // 从function取出序列化方法
             Method writeReplaceMethod;
@@ -21,22 +41,22 @@ public class FieldUtil {
 
             // 从序列化方法取出序列化的lambda信息
             writeReplaceMethod.setAccessible(true);
-            SerializedLambda serializedLambda;
-
-            serializedLambda = (SerializedLambda) writeReplaceMethod.invoke(fn);
-
-            return getFieldName(serializedLambda, clazz);
+            return (SerializedLambda) writeReplaceMethod.invoke(fn);
 
-        } catch (IllegalAccessException | InvocationTargetException | NoSuchFieldException | NoSuchMethodException e) {
+        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
             throw new RuntimeException(e);
         }
-
     }
 
     private static String getFieldName(SerializedLambda serializedLambda, Class<?> clazz) throws NoSuchFieldException {
         String implMethodName = serializedLambda.getImplMethodName();
         // 确保方法是符合规范的get方法，boolean类型是is开头
         String fieldName = getFieldName(implMethodName);
+        // 优先使用编译期生成的列名表
+        EntityMapper<?> mapper = EntityMappers.get(clazz);
+        if (mapper != null && mapper.columnOf(fieldName) != null) {
+            return mapper.columnOf(fieldName);
+        }
         Field field = clazz.getDeclaredField(fieldName);
         if (field.isAnnotationPresent(Column.class)) {
             Column column = field.getAnnotation(Column.class);
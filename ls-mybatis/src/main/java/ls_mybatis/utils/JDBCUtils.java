@@ -0,0 +1,941 @@
+package ls_mybatis.utils;
+
+
+import ls_mybatis.annotation.Column;
+import ls_mybatis.annotation.Exclude;
+import ls_mybatis.annotation.Id;
+import ls_mybatis.annotation.Table;
+import ls_mybatis.core.CsvImportException;
+import ls_mybatis.core.CsvImportOptions;
+import ls_mybatis.core.CsvImportResult;
+import ls_mybatis.core.DataSourceNode;
+import ls_mybatis.core.EntityMapper;
+import ls_mybatis.core.EntityMappers;
+import ls_mybatis.core.QueryWrapper;
+import ls_mybatis.core.ReadWriteRouter;
+import ls_mybatis.core.SFunction;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.*;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.alibaba.fastjson2.util.TypeUtils.toDate;
+
+/**
+ * @author 29002
+ * @version v0.1
+ */
+//@SuppressWarnings("all")
+public class JDBCUtils {
+    private static final Logger log = Logger.getLogger(JDBCUtils.class.getName());
+    private static final ReadWriteRouter router;
+    private static boolean logging = false;
+
+    // 在类加载时进行初始化
+    static {
+        System.out.println("---------------ls-mybatis v0.1---------------");
+        System.out.println("---------------author:29002---------------");
+        router = setupRouter();
+    }
+
+    private static void log(String message) {
+        if (logging) {
+            log.log(Level.INFO, message);
+        }
+    }
+
+    // 初始化主从数据源，并建立主库连接
+    private static ReadWriteRouter setupRouter() {
+        try {
+            Properties properties = new Properties();
+            InputStream inputStream = JDBCUtils.class.getClassLoader().getResourceAsStream("application.properties");
+            properties.load(inputStream);
+            logging = Boolean.parseBoolean(properties.getProperty("db.logging"));
+            // 自动注册驱动程序
+            ReadWriteRouter readWriteRouter = ReadWriteRouter.fromProperties(properties);
+            readWriteRouter.primary().getConnection();
+            return readWriteRouter;
+        } catch (IOException e) {
+            throw new RuntimeException("无法读取application.properties文件", e);
+        } catch (SQLException e) {
+            throw new RuntimeException("无法建立数据库连接", e);
+        }
+    }
+
+
+    // 获取主库连接，写操作使用该连接；当前线程开启了事务时返回事务连接
+    public static Connection getConnection() {
+        Connection tx = router.transactionConnection();
+        if (tx != null) {
+            return tx;
+        }
+        try {
+            return router.primary().getConnection();
+        } catch (SQLException e) {
+            throw new RuntimeException("无法建立数据库连接", e);
+        }
+    }
+
+    /**
+     * 开启当前线程的事务
+     * 事务使用独立的主库连接，提交或回滚前当前线程的读写操作都在该连接上执行
+     */
+    public static void beginTransaction() {
+        try {
+            router.beginTransaction();
+        } catch (SQLException e) {
+            throw new RuntimeException("无法开启事务", e);
+        }
+    }
+
+    // 提交当前线程的事务
+    public static void commit() {
+        try {
+            router.endTransaction(true);
+        } catch (SQLException e) {
+            throw new RuntimeException("无法提交事务", e);
+        }
+    }
+
+    // 回滚当前线程的事务
+    public static void rollback() {
+        try {
+            router.endTransaction(false);
+        } catch (SQLException e) {
+            throw new RuntimeException("无法回滚事务", e);
+        }
+    }
+
+    // 执行读操作，由路由选择从库或主库
+    private static <R> R read(ReadWriteRouter.ReadAction<R> action) throws SQLException {
+        return router.read(action);
+    }
+
+    // 执行 SQL 查询并返回结果集
+    public static ResultSet executeQuery(String sql) {
+        try {
+            Connection conn = getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(sql);
+            if (logging) {
+                log.log(Level.INFO, "执行 SQL: " + sql);
+            }
+            return rs;
+        } catch (SQLException e) {
+            throw new RuntimeException("无法执行 SQL 查询: " + sql, e);
+        }
+    }
+
+
+    /**
+     * 查询所有记录
+     *
+     * @param clazz 实体类的 Class 对象
+     * @param <T>   实体类的类型
+     * @return 包含所有记录的列表
+     */
+    public static <T> List<T> select(Class<T> clazz) {
+        return select(clazz, new QueryWrapper<>(clazz));
+    }
+
+    /**
+     * 根据查询条件返回符合条件的记录
+     *
+     * @param clazz        实体类的 Class 对象
+     * @param queryWrapper 查询条件的封装对象
+     * @param <T>          实体类的类型
+     * @return 包含符合条件的记录的列表
+     */
+    public static <T> List<T> select(Class<T> clazz, QueryWrapper<T> queryWrapper) {
+        try {
+            String tableName = getTableName(clazz);
+
+            if (!queryWrapper.getGroupBy().isEmpty()) {
+                throw new IllegalArgumentException("请使用 JDBCUtils.countMap（Class<T> clazz，QueryWrapper<T> queryWrapper） 方法进行分组查询");
+            }
+
+            // 构建 SQL 查询语句
+            String sql = "SELECT " + getSelectColumns(clazz) + " FROM " + tableName + queryWrapper.build();
+            Set<String> lazyFields = getLazyFieldNames(clazz);
+            List<T> list = read(conn -> {
+                try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+                    log("执行 SQL: " + sql);
+                    List<T> result = new ArrayList<>();
+                    // 遍历结果集, 将结果集转换为对象列表 反射机制
+                    while (rs.next()) {
+                        T obj = mapResultSetToEntity(rs, clazz);
+                        result.add(obj);
+                    }
+                    return result;
+                }
+            });
+            if (!lazyFields.isEmpty()) {
+                // 整个结果共用一个未加载字段集合
+                LazyFields.track(list, lazyFields);
+            }
+            return list;
+        } catch (SQLException e) {
+            throw new RuntimeException("无法执行查询", e);
+        }
+    }
+
+    /**
+     * 返回符合条件的第一条记录
+     *
+     * @param clazz        实体类的 Class 对象
+     * @param queryWrapper 查询条件的封装对象
+     * @param <T>          实体类的类型
+     * @return 符合条件的第一条记录，如果没有符合条件的记录则返回 null
+     */
+    public static <T> T selectOne(Class<T> clazz, QueryWrapper<T> queryWrapper) {
+        StringBuilder limit = queryWrapper.getLimit();
+        if (limit.isEmpty()) {
+            queryWrapper.limit(0, 1);
+        }
+        List<T> users = select(clazz, queryWrapper);
+        if (users == null || users.isEmpty()) {
+            return null;
+        }
+        return users.get(0);
+    }
+
+
+    /**
+     * 返回符合条件的记录数的映射
+     *
+     * @param clazz        实体类的 Class 对象
+     * @param queryWrapper 查询条件的封装对象
+     * @param <T>          实体类的类型
+     * @return 符合条件的记录数的映射
+     */
+    public static <T> Map<Object, Integer> countMap(Class<T> clazz, QueryWrapper<T> queryWrapper) {
+        try {
+            return read(conn -> {
+                try (PreparedStatement pstmt = buildCountStatement(conn, clazz, queryWrapper)) {
+                    ResultSet rs = pstmt.executeQuery();
+                    return mapResultSetToCountMap(rs, queryWrapper);
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // 构建计数 SQL 查询语句的 PreparedStatement
+    private static <T> PreparedStatement buildCountStatement(Connection conn, Class<T> clazz, QueryWrapper<T> queryWrapper) throws SQLException {
+        String tableName = getTableName(clazz);
+        StringBuilder groupBy = queryWrapper.getGroupBy();
+        if (groupBy.isEmpty()) {
+            throw new RuntimeException("没有找到分组条件\n修复建议:使用QueryWrapper.group()添加条件");
+        }
+        String groupByColumn = groupBy.substring(groupBy.indexOf("(") + 1, groupBy.indexOf(")"));
+        String sql = "SELECT " + groupByColumn + " , count(*) as count FROM " + tableName + queryWrapper.build();
+        return conn.prepareStatement(sql);
+    }
+
+    // 将结果集映射为计数 Map
+    private static Map<Object, Integer> mapResultSetToCountMap(ResultSet rs, QueryWrapper<?> queryWrapper) throws SQLException {
+        Map<Object, Integer> countMap = new HashMap<>();
+        StringBuilder groupBy = queryWrapper.getGroupBy();
+        String groupByColumn = groupBy.substring(groupBy.indexOf("(") + 1, groupBy.indexOf(")"));
+        while (rs.next()) {
+            Object groupByValue = rs.getObject(camelToSnakeCase(groupByColumn));
+            int count = rs.getInt(camelToSnakeCase("count"));
+            countMap.put(groupByValue, count);
+        }
+        return countMap;
+    }
+
+    /**
+     * 更新数据库记录
+     *
+     * @param obj 包含更新数据的对象
+     * @param <T> 对象的类型
+     * @return 受影响的记录数
+     */
+    public static <T> int update(T obj) {
+        Connection conn = getConnection();
+        try {
+            Class<?> clazz = obj.getClass();
+            EntityMapper<T> mapper = getMapper(obj);
+            // 有懒加载字段时需要跳过未加载的列，使用反射拼接
+            if (mapper != null && !mapper.hasLazyColumns()) {
+                if (mapper.updateSql() == null) {
+                    throw new RuntimeException("实体类" + clazz.getName() + "没有指定主键");
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(mapper.updateSql())) {
+                    mapper.bindUpdate(pstmt, obj);
+                    return executeWrite(pstmt);
+                }
+            }
+            String tableName = getTableName(clazz);
+            String primaryKey = getPrimaryKeyFieldName(clazz);
+            StringBuilder sqlBuilder = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+            StringJoiner columnValues = new StringJoiner(", ");
+            List<Field> updateFields = new ArrayList<>();
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Exclude.class)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                // 未加载的懒加载字段不更新，避免覆盖数据库中的值
+                if (isUnloaded(obj, field)) {
+                    continue;
+                }
+                String columnName = getColumnName(field);
+                columnValues.add(columnName + " = ?");
+                updateFields.add(field);
+            }
+            if (primaryKey.isEmpty()) {
+                throw new RuntimeException("实体类" + clazz.getName() + "没有指定主键");
+            }
+            sqlBuilder.append(columnValues).append(" WHERE ").append(primaryKey).append(" = ?");
+            String sql = sqlBuilder.toString();
+            System.out.println(sql);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int parameterIndex = 1;
+                for (Field field : updateFields) {
+                    pstmt.setObject(parameterIndex++, field.get(obj));
+                }
+                pstmt.setObject(parameterIndex, getPrimaryKeyValue(obj));
+                return executeWrite(pstmt);
+            }
+        } catch (SQLException | IllegalAccessException e) {
+            log(e.getMessage());
+            return 0;
+        }
+    }
+
+
+    /**
+     * 删除数据库记录
+     *
+     * @param clazz        实体类的 Class 对象
+     * @param queryWrapper 查询条件的封装对象
+     * @param <T>          实体类的类型
+     * @return 受影响的记录数
+     */
+    public static <T> int delete(Class<?> clazz, QueryWrapper<T> queryWrapper) {
+        Connection conn = getConnection();
+        try {
+            String tableName = getTableName(clazz);
+            String condition = queryWrapper.build();
+            String sql = "DELETE FROM " + tableName + condition;
+            PreparedStatement preparedStatement = conn.prepareStatement(sql);
+            log.info("执行SQL: " + preparedStatement);
+            int rows = preparedStatement.executeUpdate();
+            router.markWrite();
+            return rows;
+        } catch (SQLException e) {
+            log(e.getMessage());
+            return 0;
+        }
+    }
+
+
+    /**
+     * 插入新的数据库记录
+     *
+     * @param obj 包含新数据的对象
+     * @param <T> 对象的类型
+     * @return 受影响的记录数
+     */
+    public static <T> int insert(T obj) {
+        Connection conn = getConnection();
+        try {
+            Class<?> clazz = obj.getClass();
+            EntityMapper<T> mapper = getMapper(obj);
+            if (mapper != null) {
+                try (PreparedStatement pstmt = conn.prepareStatement(mapper.insertSql())) {
+                    mapper.bindInsert(pstmt, obj);
+                    return executeWrite(pstmt);
+                }
+            }
+            String tableName = getTableName(clazz);
+            String primaryKey = getPrimaryKeyFieldName(clazz);
+            StringBuilder sqlBuilder = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+
+            Field[] fields = clazz.getDeclaredFields();
+            int parameterIndex = 1; // 参数索引从1开始
+            int excludeCount = 0;
+            for (Field field : fields) {
+                if (field.isAnnotationPresent(Exclude.class)) {
+                    excludeCount++;
+                    continue;
+                }
+                if (parameterIndex > 1) {
+                    sqlBuilder.append(", ");
+                }
+                sqlBuilder.append(getColumnName(field));
+                parameterIndex++;
+            }
+
+            if (primaryKey.isEmpty()) {
+                throw new RuntimeException("你的实体类" + clazz.getName() + "没有指定主键");
+            }
+            sqlBuilder.append(") VALUES (");
+
+            for (int i = 0; i < fields.length - excludeCount; i++) {
+                if (i > 0) {
+                    sqlBuilder.append(", ");
+                }
+                sqlBuilder.append("?");
+            }
+            sqlBuilder.append(")");
+
+            String sql = sqlBuilder.toString();
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                parameterIndex = 1;
+                for (Field field : fields) {
+                    if (field.isAnnotationPresent(Exclude.class)) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    pstmt.setObject(parameterIndex, field.get(obj));
+                    parameterIndex++;
+                }
+                return executeWrite(pstmt);
+            }
+        } catch (SQLException | IllegalAccessException e) {
+            log(e.getMessage());
+            return 0;
+        }
+    }
+
+
+    /**
+     * 保存数据库记录,若主键重复更新,不存在插入
+     * 有未加载的懒加载字段时使用 INSERT ... ON DUPLICATE KEY UPDATE，只写入已加载的列，不会为此查询数据库
+     *
+     * @param obj 包含新数据的对象
+     * @param <T> 对象的类型
+     */
+    public static <T> void save(T obj) {
+        try {
+            Connection conn = getConnection();
+            Class<?> clazz = obj.getClass();
+            EntityMapper<T> mapper = getMapper(obj);
+            if (mapper != null && !mapper.hasLazyColumns()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(mapper.replaceSql())) {
+                    mapper.bindInsert(pstmt, obj);
+                    executeWrite(pstmt);
+                }
+                return;
+            }
+            List<Field> fields = new ArrayList<>();
+            boolean partial = false;
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Exclude.class)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                if (isUnloaded(obj, field)) {
+                    partial = true;
+                    continue;
+                }
+                fields.add(field);
+            }
+            if (mapper != null && !partial) {
+                try (PreparedStatement pstmt = conn.prepareStatement(mapper.replaceSql())) {
+                    mapper.bindInsert(pstmt, obj);
+                    executeWrite(pstmt);
+                }
+                return;
+            }
+            String tableName = getTableName(clazz);
+
+            StringJoiner columns = new StringJoiner(", ");
+            StringJoiner placeholders = new StringJoiner(", ");
+            StringJoiner assignments = new StringJoiner(", ");
+            for (Field field : fields) {
+                String columnName = getColumnName(field);
+                columns.add(columnName);
+                placeholders.add("?");
+                assignments.add(columnName + " = VALUES(" + columnName + ")");
+            }
+            String sql;
+            if (partial) {
+                // REPLACE 会把未列出的列清空，改为只更新列出的列
+                sql = "INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders
+                        + ") ON DUPLICATE KEY UPDATE " + assignments;
+            } else {
+                sql = "REPLACE INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")";
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < fields.size(); i++) {
+                    pstmt.setObject(i + 1, fields.get(i).get(obj));
+                }
+                executeWrite(pstmt);
+            }
+        } catch (SQLException | IllegalAccessException e) {
+            log(e.getMessage());
+        }
+    }
+
+
+    /**
+     * 从 CSV 文件批量导入记录，使用默认配置(有表头、逗号分隔、UTF-8)
+     *
+     * @param path  CSV 文件路径
+     * @param clazz 实体类的 Class 对象
+     * @param <T>   实体类的类型
+     * @return 导入结果
+     */
+    public static <T> CsvImportResult importCsv(Path path, Class<T> clazz) {
+        return importCsv(path, clazz, new CsvImportOptions());
+    }
+
+    /**
+     * 从 CSV 文件批量导入记录
+     * 文件通过内存映射分块并行解析，再由多个主库连接以多行 INSERT 写入，
+     * 无法解析或被数据库拒绝的行计入结果，不会中断导入；死锁、锁等待超时等暂时性错误会重试该批
+     *
+     * @param path    CSV 文件路径
+     * @param clazz   实体类的 Class 对象
+     * @param options 导入配置
+     * @param <T>     实体类的类型
+     * @return 导入结果
+     * @throws CsvImportException 导入中途失败，已提交的批次不会回滚，getResult() 为失败时的进度
+     */
+    public static <T> CsvImportResult importCsv(Path path, Class<T> clazz, CsvImportOptions options) {
+        try {
+            CsvImportResult result = new CsvImporter(path, clazz, options, router.primary()).run();
+            log("CSV 导入完成: " + result);
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException("无法读取CSV文件: " + path, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("CSV 导入被中断: " + path, e);
+        } finally {
+            // 中途失败时之前的批次已经提交，同样需要写后读
+            router.markWrite();
+        }
+    }
+
+    /**
+     * 加载懒加载字段，字段已加载或已有值时直接返回
+     * 已加载的 NULL 值不会重复查询；自行创建的对象无法区分未加载和 NULL，值为 null 时总会查询
+     *
+     * @param obj 实体对象，需要有主键值
+     * @param fn  字段的 get 方法引用，例如 User::getContent
+     * @param <T> 实体类的类型
+     * @param <R> 字段的类型
+     * @return 字段的值，数据库中为 NULL 时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, R> R load(T obj, SFunction<T, R> fn) {
+        try {
+            Field field = obj.getClass().getDeclaredField(FieldUtil.getPropertyName(fn));
+            return (R) loadField(obj, field);
+        } catch (NoSuchFieldException | SQLException | IllegalAccessException e) {
+            throw new RuntimeException("无法加载字段", e);
+        }
+    }
+
+    /**
+     * 以二进制流读取懒加载字段(BLOB)，不把值转换为 byte[]
+     * 查询使用独立的连接和只进游标，MySQL 下使用流式结果集(fetchSize = Integer.MIN_VALUE)，不缓存整个结果集；
+     * 驱动是否按需读取单个值取决于驱动本身，MySQL 驱动仍会把当前这一行读入内存
+     * 使用完毕必须关闭流，关闭时释放对应的查询和连接
+     *
+     * @param obj 实体对象，需要有主键值
+     * @param fn  字段的 get 方法引用
+     * @param <T> 实体类的类型
+     * @return 字段值的输入流，记录不存在或值为 NULL 时返回 null
+     */
+    public static <T> InputStream openInputStream(T obj, SFunction<T, ?> fn) {
+        LazyCursor cursor = openLazyCursor(obj, fn);
+        try {
+            InputStream in = cursor.next() ? cursor.rs.getBinaryStream(1) : null;
+            if (in == null) {
+                cursor.close();
+                return null;
+            }
+            return new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        cursor.close();
+                    }
+                }
+            };
+        } catch (SQLException e) {
+            cursor.close();
+            throw new RuntimeException("无法读取字段", e);
+        }
+    }
+
+    /**
+     * 以字符流读取懒加载字段(TEXT)，不把值转换为 String，连接和内存占用同 openInputStream
+     * 使用完毕必须关闭流，关闭时释放对应的查询和连接
+     *
+     * @param obj 实体对象，需要有主键值
+     * @param fn  字段的 get 方法引用
+     * @param <T> 实体类的类型
+     * @return 字段值的 Reader，记录不存在或值为 NULL 时返回 null
+     */
+    public static <T> Reader openReader(T obj, SFunction<T, ?> fn) {
+        LazyCursor cursor = openLazyCursor(obj, fn);
+        try {
+            Reader reader = cursor.next() ? cursor.rs.getCharacterStream(1) : null;
+            if (reader == null) {
+                cursor.close();
+                return null;
+            }
+            return new FilterReader(reader) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        cursor.close();
+                    }
+                }
+            };
+        } catch (SQLException e) {
+            cursor.close();
+            throw new RuntimeException("无法读取字段", e);
+        }
+    }
+
+    // 按主键查询单个字段的游标，关闭时释放语句；使用独立连接时一并关闭连接
+    private static class LazyCursor {
+        // 事务中为 null
+        private final DataSourceNode node;
+        // 独立连接，事务中为 null(事务连接由事务关闭)
+        private final Connection conn;
+        private final PreparedStatement pstmt;
+        private ResultSet rs;
+
+        private LazyCursor(DataSourceNode node, Connection conn, PreparedStatement pstmt) {
+            this.node = node;
+            this.conn = conn;
+            this.pstmt = pstmt;
+        }
+
+        private boolean next() throws SQLException {
+            return rs.next();
+        }
+
+        private void close() {
+            try {
+                pstmt.close();
+            } catch (SQLException e) {
+                log(e.getMessage());
+            }
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    log(e.getMessage());
+                }
+            }
+            if (node != null) {
+                node.release();
+            }
+        }
+    }
+
+    private static <T> LazyCursor openLazyCursor(T obj, SFunction<T, ?> fn) {
+        String sql;
+        Object primaryKeyValue;
+        try {
+            Field field = obj.getClass().getDeclaredField(FieldUtil.getPropertyName(fn));
+            sql = buildLoadSql(obj.getClass(), field);
+            primaryKeyValue = getPrimaryKeyValue(obj);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new RuntimeException("无法读取字段", e);
+        }
+        Connection tx = router.transactionConnection();
+        if (tx != null) {
+            // 事务连接上不能使用流式结果集，否则在关闭前无法执行其它语句
+            LazyCursor cursor = null;
+            try {
+                cursor = new LazyCursor(null, null, tx.prepareStatement(sql));
+                return executeLazyCursor(cursor, primaryKeyValue);
+            } catch (SQLException e) {
+                if (cursor != null) {
+                    cursor.close();
+                }
+                throw new RuntimeException("无法读取字段", e);
+            }
+        }
+        DataSourceNode node = router.routeRead();
+        Connection conn;
+        try {
+            conn = node.openConnection();
+        } catch (SQLException e) {
+            if (node == router.primary()) {
+                throw new RuntimeException("无法读取字段", e);
+            }
+            log.log(Level.WARNING, "从库 " + node + " 不可用，已剔除: " + e.getMessage());
+            router.markFailed(node);
+            node = router.primary();
+            try {
+                conn = node.openConnection();
+            } catch (SQLException ex) {
+                throw new RuntimeException("无法读取字段", ex);
+            }
+        }
+        node.acquire();
+        PreparedStatement pstmt;
+        try {
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        } catch (SQLException e) {
+            node.release();
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+            }
+            throw new RuntimeException("无法读取字段", e);
+        }
+        LazyCursor cursor = new LazyCursor(node, conn, pstmt);
+        try {
+            if (conn.getMetaData().getURL().startsWith("jdbc:mysql:")) {
+                // MySQL 驱动默认把整个结果集读入内存，Integer.MIN_VALUE 表示逐行流式读取
+                pstmt.setFetchSize(Integer.MIN_VALUE);
+            }
+            return executeLazyCursor(cursor, primaryKeyValue);
+        } catch (SQLException e) {
+            cursor.close();
+            throw new RuntimeException("无法读取字段", e);
+        }
+    }
+
+    private static LazyCursor executeLazyCursor(LazyCursor cursor, Object primaryKeyValue) throws SQLException {
+        cursor.pstmt.setObject(1, primaryKeyValue);
+        cursor.rs = cursor.pstmt.executeQuery();
+        return cursor;
+    }
+
+    // 按主键加载单个字段并写回实体，字段已加载或已有值时不查询
+    private static Object loadField(Object obj, Field field) throws SQLException, IllegalAccessException {
+        field.setAccessible(true);
+        Object current = field.get(obj);
+        if (current != null || (LazyFields.isTracked(obj) && !LazyFields.isUnloaded(obj, field.getName()))) {
+            return current;
+        }
+        String sql = buildLoadSql(obj.getClass(), field);
+        Object primaryKeyValue = getPrimaryKeyValue(obj);
+        Object value = read(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setObject(1, primaryKeyValue);
+                log("执行 SQL: " + sql);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getObject(1) : null;
+                }
+            }
+        });
+        if (value != null) {
+            setFieldValue(obj, field, value);
+        }
+        LazyFields.markLoaded(obj, field.getName());
+        return field.get(obj);
+    }
+
+    private static String buildLoadSql(Class<?> clazz, Field field) {
+        String primaryKey = getPrimaryKeyFieldName(clazz);
+        if (primaryKey.isEmpty()) {
+            throw new RuntimeException("实体类" + clazz.getName() + "没有指定主键");
+        }
+        return "SELECT " + getColumnName(field) + " FROM " + getTableName(clazz) + " WHERE " + primaryKey + " = ?";
+    }
+
+    // 是否为懒加载字段
+    private static boolean isLazy(Field field) {
+        return field.isAnnotationPresent(Column.class) && field.getAnnotation(Column.class).lazy();
+    }
+
+    // 查询时不加载的字段名，不可变
+    private static Set<String> getLazyFieldNames(Class<?> clazz) {
+        EntityMapper<?> mapper = EntityMappers.get(clazz);
+        if (mapper != null && !mapper.hasLazyColumns()) {
+            return Collections.emptySet();
+        }
+        Set<String> names = new HashSet<>();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (isLazy(field) && !field.isAnnotationPresent(Exclude.class)) {
+                names.add(field.getName());
+            }
+        }
+        return Set.copyOf(names);
+    }
+
+    // 查询得到且尚未加载、也没有被赋值的懒加载字段，写入时跳过
+    private static boolean isUnloaded(Object obj, Field field) throws IllegalAccessException {
+        return isLazy(field) && field.get(obj) == null && LazyFields.isUnloaded(obj, field.getName());
+    }
+
+    // 查询的列，有懒加载字段时列出其余的列，否则为 *
+    private static String getSelectColumns(Class<?> clazz) {
+        EntityMapper<?> mapper = EntityMappers.get(clazz);
+        if (mapper != null) {
+            return mapper.selectColumns();
+        }
+        StringJoiner columns = new StringJoiner(", ");
+        boolean hasLazy = false;
+        for (Field field : clazz.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Exclude.class) || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            if (isLazy(field)) {
+                hasLazy = true;
+                continue;
+            }
+            columns.add(getColumnName(field));
+        }
+        return hasLazy ? columns.toString() : "*";
+    }
+
+    // 执行写操作并记录写入，供写后读路由使用
+    private static int executeWrite(PreparedStatement pstmt) throws SQLException {
+        if (logging) {
+            log.log(Level.INFO, "执行SQL: " + pstmt);
+        }
+        int rows = pstmt.executeUpdate();
+        router.markWrite();
+        return rows;
+    }
+
+    // 获取编译期生成的映射器，没有时返回 null 使用反射
+    @SuppressWarnings("unchecked")
+    private static <T> EntityMapper<T> getMapper(T obj) {
+        return (EntityMapper<T>) EntityMappers.get(obj.getClass());
+    }
+
+    // 获取表名
+    static String getTableName(Class<?> clazz) {
+        EntityMapper<?> mapper = EntityMappers.get(clazz);
+        if (mapper != null) {
+            return mapper.tableName();
+        }
+        if (clazz.isAnnotationPresent(Table.class) && !clazz.getAnnotation(Table.class).value().isEmpty()) {
+            Table table = clazz.getAnnotation(Table.class);
+            return table.value();
+        } else {
+            // 默认使用类名作为表名
+            return clazz.getSimpleName();
+        }
+    }
+
+    // 获取主键字段名
+    private static String getPrimaryKeyFieldName(Class<?> clazz) {
+        Field[] fields = clazz.getDeclaredFields();
+        for (Field field : fields) {
+            if (field.isAnnotationPresent(Id.class)) {
+                return field.getName();
+            }
+        }
+        return ""; // 没有找到主键字段
+    }
+
+    // 获取主键值
+    private static Object getPrimaryKeyValue(Object obj) throws IllegalAccessException {
+        Class<?> clazz = obj.getClass();
+        Field[] fields = clazz.getDeclaredFields();
+        for (Field field : fields) {
+            if (field.isAnnotationPresent(Id.class)) {
+                field.setAccessible(true);
+                return field.get(obj);
+            }
+        }
+        throw new RuntimeException("实体类" + clazz.getName() + "没有指定主键");
+    }
+
+    // 获取列名
+    static String getColumnName(Field field) {
+        if (field.isAnnotationPresent(Column.class)) {
+            Column column = field.getAnnotation(Column.class);
+            if (!column.value().isEmpty()) {
+                return column.value();
+            }
+        }
+        // 默认使用字段名，将驼峰命名转换为下划线分隔的形式
+        return camelToSnakeCase(field.getName());
+    }
+
+    // 驼峰命名转换为下划线分隔的形式
+    private static String camelToSnakeCase(String str) {
+        return str.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    // 将结果集映射为实体对象
+    private static <T> T mapResultSetToEntity(ResultSet rs, Class<T> clazz) {
+        try {
+            EntityMapper<T> mapper = EntityMappers.get(clazz);
+            if (mapper != null) {
+                return mapper.map(rs);
+            }
+            T obj = clazz.getDeclaredConstructor().newInstance();
+            Field[] fields = clazz.getDeclaredFields();
+            for (Field field : fields) {
+                if (field.isAnnotationPresent(Exclude.class) || isLazy(field)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                String fieldName = getColumnName(field);
+                Object value = rs.getObject(fieldName);
+                if (value != null && !(value instanceof List)) {
+                    setFieldValue(obj, field, value);
+                }
+            }
+            return obj;
+        } catch (SQLException | InvocationTargetException | InstantiationException | IllegalAccessException |
+                 NoSuchMethodException e) {
+            log(e.getMessage());
+            return null;
+        }
+
+    }
+
+    // 设置实体对象的字段值
+    private static void setFieldValue(Object obj, Field field, Object value) throws IllegalAccessException, SQLException {
+        Type type = field.getType();
+        if (type == String.class) {
+            if (value instanceof String) {
+                field.set(obj, value);
+            } else if (value instanceof Clob clob) {
+                field.set(obj, clob.getSubString(1, (int) clob.length()));
+            } else {
+                field.set(obj, value.toString());
+            }
+        } else if (type == byte[].class) {
+            if (value instanceof Blob blob) {
+                field.set(obj, blob.getBytes(1, (int) blob.length()));
+            } else if (value instanceof byte[]) {
+                field.set(obj, value);
+            } else {
+                log.log(Level.WARNING, field.getName() + " 无法转换为 byte[]: " + value.getClass().getName());
+            }
+        } else if (type == Integer.class || type == int.class) {
+            field.set(obj, Integer.valueOf(value.toString()));
+        } else if (type == Long.class || type == long.class) {
+            field.set(obj, Long.valueOf(value.toString()));
+        } else if (type == Double.class || type == double.class) {
+            field.set(obj, Double.valueOf(value.toString()));
+        } else if (type == Boolean.class || type == boolean.class) {
+            field.set(obj, Boolean.valueOf(value.toString()));
+        } else if (type == Date.class) {
+            field.set(obj, toDate(value));
+        } else {
+            log.log(Level.WARNING, field.getName() + " 不支持类型: " + type.getTypeName());
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+package ls_mybatis.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录实体对象中尚未加载的懒加载字段
+ * select 返回的对象登记全部懒加载字段为未加载，load 之后移除；
+ * 按对象身份弱引用持有，实体的 equals/hashCode 不影响记录，对象被回收后自动清除
+ * 同一次查询的对象共用一个不可变的字段集合，load 时为该对象复制一份，不使用全局锁
+ *
+ * @author 29002
+ */
+final class LazyFields {
+
+    private static final Map<Key, Set<String>> UNLOADED = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+    private LazyFields() {
+    }
+
+    // 登记一次查询得到的对象，fieldNames 为未加载的懒加载字段，由这些对象共用
+    static void track(Collection<?> objs, Set<String> fieldNames) {
+        expunge();
+        for (Object obj : objs) {
+            if (obj != null) {
+                UNLOADED.put(new Key(obj, QUEUE), fieldNames);
+            }
+        }
+    }
+
+    // 标记字段已加载，未登记的对象从此开始跟踪
+    static void markLoaded(Object obj, String fieldName) {
+        expunge();
+        UNLOADED.compute(new Key(obj, QUEUE), (key, fields) -> {
+            if (fields == null || !fields.contains(fieldName)) {
+                return fields == null ? Set.of() : fields;
+            }
+            Set<String> remaining = new HashSet<>(fields);
+            remaining.remove(fieldName);
+            return Set.copyOf(remaining);
+        });
+    }
+
+    // 对象是否被跟踪，未跟踪的对象(如自行 new 的)无法区分字段是否已加载
+    static boolean isTracked(Object obj) {
+        return UNLOADED.containsKey(new Key(obj, null));
+    }
+
+    // 字段是否确定未加载
+    static boolean isUnloaded(Object obj, String fieldName) {
+        Set<String> fields = UNLOADED.get(new Key(obj, null));
+        return fields != null && fields.contains(fieldName);
+    }
+
+    private static void expunge() {
+        Reference<?> ref;
+        while ((ref = QUEUE.poll()) != null) {
+            UNLOADED.remove(ref);
+        }
+    }
+
+    // 按对象身份比较的弱引用键
+    private static final class Key extends WeakReference<Object> {
+        private final int hash;
+
+        private Key(Object obj, ReferenceQueue<Object> queue) {
+            super(obj, queue);
+            this.hash = System.identityHashCode(obj);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == key.get();
+        }
+    }
+}
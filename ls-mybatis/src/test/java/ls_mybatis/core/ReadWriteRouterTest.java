@@ -0,0 +1,169 @@
+package ls_mybatis.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRouterTest {
+
+    private static final ReadWriteRouter.ReadAction<String> NODE_NAME = conn -> {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT name FROM node")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    };
+
+    // 建立一个内存库并写入它的名称，供读操作识别命中的节点
+    private static DataSourceNode node(String name) throws SQLException {
+        String url = "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        try (Connection conn = DriverManager.getConnection(url, "sa", ""); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE node(name VARCHAR(20))");
+            stmt.execute("INSERT INTO node VALUES ('" + name + "')");
+        }
+        return new DataSourceNode(name, url, "sa", "");
+    }
+
+    private static ReadWriteRouter router(ReadWriteRouter.Balance balance, long ejectMillis, long stickyMillis,
+                                          DataSourceNode... replicas) throws SQLException {
+        return new ReadWriteRouter(node("primary"), List.of(replicas), balance, ejectMillis, stickyMillis);
+    }
+
+    @Test
+    void roundRobinAlternatesReplicas() throws SQLException {
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.ROUND_ROBIN, 1000, 0, node("r0"), node("r1"));
+        List<String> served = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            served.add(router.read(NODE_NAME));
+        }
+        assertEquals(List.of("r0", "r1", "r0", "r1"), served);
+    }
+
+    @Test
+    void leastInFlightPrefersIdleReplica() throws SQLException {
+        DataSourceNode r0 = node("r0");
+        DataSourceNode r1 = node("r1");
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.LEAST_IN_FLIGHT, 1000, 0, r0, r1);
+        r0.acquire();
+        assertEquals("r1", router.read(NODE_NAME));
+        r0.release();
+        r1.acquire();
+        r1.acquire();
+        assertEquals("r0", router.read(NODE_NAME));
+        r1.release();
+        r1.release();
+    }
+
+    @Test
+    void unreachableReplicaIsEjectedAndRecovers() throws Exception {
+        String name = "late-" + UUID.randomUUID();
+        DataSourceNode late = new DataSourceNode("late", "jdbc:h2:mem:" + name + ";IFEXISTS=TRUE", "sa", "");
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.ROUND_ROBIN, 200, 0, late);
+
+        assertEquals("primary", router.read(NODE_NAME));
+        assertFalse(late.isHealthy());
+        assertSame(router.primary(), router.routeRead());
+
+        // 从库恢复，剔除时间过后重新参与路由
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE node(name VARCHAR(20))");
+            stmt.execute("INSERT INTO node VALUES ('late')");
+            Thread.sleep(300);
+            assertTrue(late.isHealthy());
+            assertEquals("late", router.read(NODE_NAME));
+        }
+    }
+
+    // 第一次返回一个未关闭但已失效的连接，模拟被服务端断开的空闲连接
+    private static class StaleNode extends DataSourceNode {
+        private boolean stale = true;
+
+        StaleNode(DataSourceNode node) throws SQLException {
+            super(node.getName(), node.openConnection().getMetaData().getURL(), "sa", "");
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (stale) {
+                stale = false;
+                return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                        (proxy, method, args) -> switch (method.getName()) {
+                            case "isClosed" -> false;
+                            case "isValid" -> false;
+                            default -> throw new SQLException("Communications link failure");
+                        });
+            }
+            return super.getConnection();
+        }
+    }
+
+    @Test
+    void droppedConnectionIsRetriedOnSameReplica() throws SQLException {
+        DataSourceNode r0 = new StaleNode(node("r0"));
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.ROUND_ROBIN, 1000, 0, r0);
+        assertEquals("r0", router.read(NODE_NAME));
+        assertTrue(r0.isHealthy());
+    }
+
+    @Test
+    void statementErrorDoesNotEjectReplica() throws SQLException {
+        DataSourceNode r0 = node("r0");
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.ROUND_ROBIN, 1000, 0, r0);
+        assertThrows(SQLException.class, () -> router.read(conn -> conn.createStatement().executeQuery("SELECT * FROM missing")));
+        assertTrue(r0.isHealthy());
+        assertEquals("r0", router.read(NODE_NAME));
+    }
+
+    @Test
+    void transactionRoutesToPrimaryOnlyForItsThread() throws Exception {
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.ROUND_ROBIN, 1000, 0, node("r0"));
+        router.beginTransaction();
+        try {
+            try (Statement stmt = router.transactionConnection().createStatement()) {
+                stmt.execute("UPDATE node SET name = 'uncommitted'");
+            }
+            assertSame(router.primary(), router.routeRead());
+            assertEquals("uncommitted", router.read(NODE_NAME));
+            assertEquals("r0", CompletableFuture.supplyAsync(() -> router.routeRead().getName()).get());
+        } finally {
+            router.endTransaction(false);
+        }
+        assertNull(router.transactionConnection());
+        assertEquals("r0", router.read(NODE_NAME));
+        router.beginTransaction();
+        try {
+            assertEquals("primary", router.read(NODE_NAME));
+        } finally {
+            router.endTransaction(true);
+        }
+    }
+
+    @Test
+    void readYourWritesWindow() throws Exception {
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.ROUND_ROBIN, 1000, 200, node("r0"));
+        assertEquals("r0", router.read(NODE_NAME));
+        router.markWrite();
+        assertEquals("primary", router.read(NODE_NAME));
+        assertEquals("r0", CompletableFuture.supplyAsync(() -> router.routeRead().getName()).get());
+        Thread.sleep(300);
+        assertEquals("r0", router.read(NODE_NAME));
+    }
+
+    @Test
+    void stickinessDisabledByDefault() throws SQLException {
+        ReadWriteRouter router = router(ReadWriteRouter.Balance.ROUND_ROBIN, 1000, 0, node("r0"));
+        router.markWrite();
+        assertEquals("r0", router.read(NODE_NAME));
+    }
+}
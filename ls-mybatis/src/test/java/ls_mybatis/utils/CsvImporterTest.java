@@ -0,0 +1,290 @@
+package ls_mybatis.utils;
+
+import ls_mybatis.annotation.Id;
+import ls_mybatis.annotation.Table;
+import ls_mybatis.core.CsvImportException;
+import ls_mybatis.core.CsvImportOptions;
+import ls_mybatis.core.CsvImportResult;
+import ls_mybatis.core.DataSourceNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvImporterTest {
+
+    @Table("csv_user")
+    public static class CsvUser {
+        @Id
+        private int id;
+        private String name;
+        private Integer age;
+        private Date createdAt;
+    }
+
+    private static final String HEADER = "id,name,age,created_at";
+
+    @TempDir
+    Path dir;
+    private DataSourceNode node;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        node = new DataSourceNode("csv", "jdbc:h2:mem:csv-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+        execute("CREATE TABLE csv_user(id INT PRIMARY KEY, name VARCHAR(50), age INT, created_at TIMESTAMP)");
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement stmt = node.getConnection().createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement stmt = node.getConnection().createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = dir.resolve("data.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private CsvImportResult importCsv(Path file, CsvImportOptions options) throws Exception {
+        return new CsvImporter(file, CsvUser.class, options, node).run();
+    }
+
+    @Test
+    void importsManyChunksInParallel() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        int rows = 5000;
+        for (int i = 1; i <= rows; i++) {
+            csv.append(i).append(",user").append(i).append(',').append(i % 90).append(",2024-01-01 00:00:00\n");
+        }
+        Path file = write(csv.toString());
+        CsvImportResult result = importCsv(file, new CsvImportOptions()
+                .chunkSize(256)
+                .parserThreads(4)
+                .writerThreads(3)
+                .batchSize(7));
+
+        assertTrue(result.isFinished());
+        assertEquals(rows, result.getRowsImported());
+        assertEquals(0, result.getRejectedLines());
+        assertEquals(Files.size(file), result.getBytesRead());
+        assertEquals(rows, queryLong("SELECT COUNT(*) FROM csv_user"));
+        assertEquals((long) rows * (rows + 1) / 2, queryLong("SELECT SUM(id) FROM csv_user"));
+    }
+
+    @Test
+    void handlesCrlfAndMissingFinalNewline() throws Exception {
+        Path file = write(HEADER + "\r\n"
+                + "1,alice,20,2024-01-01\r\n"
+                + "2,\"b,\"\"c\"\"\",,2024-01-02 10:00:00\r\n"
+                + "3,carol,30,1704067200000");
+        CsvImportResult result = importCsv(file, new CsvImportOptions().chunkSize(8).parserThreads(2));
+
+        assertEquals(3, result.getRowsImported());
+        assertEquals(0, result.getRejectedLines());
+        try (Statement stmt = node.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name, age FROM csv_user ORDER BY id")) {
+            assertTrue(rs.next());
+            assertEquals("alice", rs.getString(1));
+            assertTrue(rs.next());
+            assertEquals("b,\"c\"", rs.getString(1));
+            assertNull(rs.getObject(2));
+            assertTrue(rs.next());
+            // 最后一行没有换行，也不能带上 \r
+            assertEquals("carol", rs.getString(1));
+            assertEquals(30, rs.getInt(2));
+        }
+    }
+
+    @Test
+    void reportsRejectedLinesWithOffsets() throws Exception {
+        List<String> lines = List.of(
+                HEADER,
+                "1,ok,1,2024-01-01",
+                "2,bad number,abc,2024-01-01",
+                "3,too,many,columns,here",
+                "4,\"unclosed,1,2024-01-01",
+                "5,compact date,1,20240101",
+                "10,first,1,2024-01-01",
+                "10,duplicate,1,2024-01-01",
+                "11,ok,1,2024-01-01");
+        Map<String, Long> offsets = new HashMap<>();
+        long offset = 0;
+        for (String line : lines) {
+            offsets.put(line, offset);
+            offset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        Path file = write(String.join("\n", lines) + "\n");
+        // 整个文件为一块一批，两行 id=10 在同一批中，批量写入失败后逐行找出重复的行
+        CsvImportResult result = importCsv(file, new CsvImportOptions()
+                .parserThreads(1)
+                .writerThreads(1)
+                .batchSize(100));
+
+        assertEquals(3, result.getRowsImported());
+        assertEquals(5, result.getRejectedLines());
+        Map<String, CsvImportResult.RejectedLine> rejected = new HashMap<>();
+        for (CsvImportResult.RejectedLine line : result.getRejectedSamples()) {
+            rejected.put(line.getLine(), line);
+            assertEquals(offsets.get(line.getLine()), line.getOffset(), line.toString());
+        }
+        assertTrue(rejected.get("2,bad number,abc,2024-01-01").getReason().contains("age"));
+        assertTrue(rejected.get("3,too,many,columns,here").getReason().contains("列数不匹配"));
+        assertTrue(rejected.get("4,\"unclosed,1,2024-01-01").getReason().contains("引号未闭合"));
+        assertTrue(rejected.get("5,compact date,1,20240101").getReason().contains("createdAt"));
+        assertTrue(rejected.containsKey("10,duplicate,1,2024-01-01"));
+        assertEquals(3, queryLong("SELECT COUNT(*) FROM csv_user"));
+    }
+
+    @Test
+    void reportsProgress() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 1; i <= 2000; i++) {
+            csv.append(i).append(",user,1,2024-01-01\n");
+        }
+        List<CsvImportResult> progress = new CopyOnWriteArrayList<>();
+        CsvImportResult result = importCsv(write(csv.toString()), new CsvImportOptions()
+                .chunkSize(1024)
+                .batchSize(10)
+                .progressIntervalMillis(1)
+                .onProgress(progress::add));
+
+        assertFalse(progress.isEmpty());
+        CsvImportResult last = progress.get(progress.size() - 1);
+        assertSame(result, last);
+        assertTrue(last.isFinished());
+        long previous = 0;
+        for (CsvImportResult snapshot : progress) {
+            assertTrue(snapshot.getRowsImported() >= previous);
+            assertTrue(snapshot.getBytesRead() <= snapshot.getTotalBytes());
+            assertEquals(snapshot == last, snapshot.isFinished());
+            previous = snapshot.getRowsImported();
+        }
+        assertEquals(2000, last.getRowsImported());
+    }
+
+    @Test
+    void slowListenerNeverOverlapsOrOutlivesFinalResult() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (int i = 1; i <= 20000; i++) {
+            csv.append(i).append(",user,1,2024-01-01\n");
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CsvImportResult> progress = new CopyOnWriteArrayList<>();
+        CsvImportResult result = importCsv(write(csv.toString()), new CsvImportOptions()
+                .chunkSize(4096)
+                .batchSize(50)
+                .progressIntervalMillis(1)
+                .onProgress(snapshot -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    progress.add(snapshot);
+                }));
+
+        // run() 返回后不会再有回调
+        int delivered = progress.size();
+        Thread.sleep(100);
+        assertEquals(delivered, progress.size());
+        assertEquals(1, maxRunning.get());
+        assertSame(result, progress.get(progress.size() - 1));
+        assertEquals(1, progress.stream().filter(CsvImportResult::isFinished).count());
+    }
+
+    @Test
+    void retriesBatchOnLockTimeout() throws Exception {
+        execute("SET DEFAULT_LOCK_TIMEOUT 100");
+        Path file = write(HEADER + "\n1,a,1,2024-01-01\n2,b,1,2024-01-01\n");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection blocker = node.openConnection()) {
+            blocker.setAutoCommit(false);
+            try (Statement stmt = blocker.createStatement()) {
+                stmt.execute("INSERT INTO csv_user(id) VALUES (2)");
+            }
+            Future<CsvImportResult> future = executor.submit(() -> importCsv(file, new CsvImportOptions().writerThreads(1)));
+            // 锁在第一次写入超时之后才释放
+            Thread.sleep(400);
+            blocker.rollback();
+            CsvImportResult result = future.get();
+            assertEquals(2, result.getRowsImported());
+            assertEquals(0, result.getRejectedLines());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(2, queryLong("SELECT COUNT(*) FROM csv_user"));
+    }
+
+    @Test
+    void failureKeepsCommittedBatchesAndReportsProgress() throws Exception {
+        execute("SET DEFAULT_LOCK_TIMEOUT 50");
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (int i = 1; i <= 6; i++) {
+            lines.add(i + ",user,1,2024-01-01");
+        }
+        Path file = write(String.join("\n", lines) + "\n");
+        try (Connection blocker = node.openConnection()) {
+            blocker.setAutoCommit(false);
+            try (Statement stmt = blocker.createStatement()) {
+                stmt.execute("INSERT INTO csv_user(id) VALUES (5)");
+            }
+            List<CsvImportResult> progress = new CopyOnWriteArrayList<>();
+            CsvImportException e = assertThrows(CsvImportException.class, () -> importCsv(file, new CsvImportOptions()
+                    .parserThreads(1)
+                    .writerThreads(1)
+                    .batchSize(2)
+                    .progressIntervalMillis(1)
+                    .onProgress(snapshot -> {
+                        try {
+                            Thread.sleep(30);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        progress.add(snapshot);
+                    })));
+            assertFalse(e.getResult().isFinished());
+            assertEquals(4, e.getResult().getRowsImported());
+            // 抛出异常后不会再有回调，也没有 isFinished 的结果
+            int delivered = progress.size();
+            Thread.sleep(100);
+            assertEquals(delivered, progress.size());
+            assertTrue(progress.stream().noneMatch(CsvImportResult::isFinished));
+            blocker.rollback();
+        }
+        // 失败前提交的批次不会回滚
+        assertEquals(4, queryLong("SELECT COUNT(*) FROM csv_user"));
+    }
+}
@@ -0,0 +1,217 @@
+package ls_mybatis.utils;
+
+import ls_mybatis.annotation.Column;
+import ls_mybatis.annotation.Id;
+import ls_mybatis.annotation.Table;
+import ls_mybatis.core.QueryWrapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JDBCUtilsLazyTest {
+
+    @Table("lazy_doc")
+    public static class Doc {
+        @Id
+        private int id;
+        private String title;
+        @Column(lazy = true)
+        private String body;
+        @Column(value = "payload", lazy = true)
+        private byte[] data;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public void setBody(String body) {
+            this.body = body;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public void setData(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    @BeforeAll
+    static void createTables() throws SQLException {
+        executeEverywhere("CREATE TABLE lazy_doc(id INT PRIMARY KEY, title VARCHAR(20), body CLOB, payload BLOB)");
+        executeEverywhere("INSERT INTO lazy_doc VALUES (1, 'null body', NULL, NULL)");
+        executeEverywhere("INSERT INTO lazy_doc VALUES (2, 'update', 'text', NULL)");
+        executeEverywhere("INSERT INTO lazy_doc VALUES (3, 'save', 'keep', X'01')");
+        executeEverywhere("INSERT INTO lazy_doc VALUES (5, 'stream', 'streamed text', X'0a0b0c')");
+    }
+
+    // 主库和从库写入相同的数据，读操作无论路由到哪个库结果一致
+    private static void executeEverywhere(String sql) throws SQLException {
+        for (String db : new String[]{"primary", "replica0", "replica1"}) {
+            try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    private static Doc selectById(int id) {
+        QueryWrapper<Doc> wrapper = new QueryWrapper<>(Doc.class);
+        wrapper.eq(Doc::getId, id);
+        return JDBCUtils.selectOne(Doc.class, wrapper);
+    }
+
+    // 主库中的值
+    private static Object primaryValue(int id, String column) throws SQLException {
+        try (Statement stmt = JDBCUtils.getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT " + column + " FROM lazy_doc WHERE id = " + id)) {
+            assertTrue(rs.next());
+            Object value = rs.getObject(1);
+            if (value instanceof Clob clob) {
+                return clob.getSubString(1, (int) clob.length());
+            }
+            return value instanceof Blob blob ? blob.getBytes(1, (int) blob.length()) : value;
+        }
+    }
+
+    @Test
+    void selectSkipsLazyColumns() {
+        Doc doc = selectById(5);
+        assertEquals("stream", doc.getTitle());
+        assertNull(doc.getBody());
+        assertNull(doc.getData());
+        assertEquals("streamed text", JDBCUtils.load(doc, Doc::getBody));
+        assertEquals("streamed text", doc.getBody());
+    }
+
+    @Test
+    void rowsOfOneSelectTrackLoadedStateSeparately() {
+        List<Doc> docs = JDBCUtils.select(Doc.class);
+        Doc first = docs.get(0);
+        Doc second = docs.get(1);
+        assertTrue(LazyFields.isUnloaded(first, "body"));
+        assertTrue(LazyFields.isUnloaded(second, "body"));
+
+        JDBCUtils.load(first, Doc::getBody);
+        assertFalse(LazyFields.isUnloaded(first, "body"));
+        assertTrue(LazyFields.isUnloaded(first, "data"));
+        // 同一次查询的对象共用字段集合，加载一个对象不影响其它对象
+        assertTrue(LazyFields.isUnloaded(second, "body"));
+    }
+
+    @Test
+    void loadedNullIsNotQueriedAgain() throws SQLException {
+        Doc doc = selectById(1);
+        assertNull(JDBCUtils.load(doc, Doc::getBody));
+        executeEverywhere("UPDATE lazy_doc SET body = 'later' WHERE id = 1");
+        try {
+            assertNull(JDBCUtils.load(doc, Doc::getBody));
+            // 自行创建的对象无法区分未加载和 NULL，会查询
+            Doc created = new Doc();
+            created.setId(1);
+            assertEquals("later", JDBCUtils.load(created, Doc::getBody));
+        } finally {
+            executeEverywhere("UPDATE lazy_doc SET body = NULL WHERE id = 1");
+        }
+    }
+
+    @Test
+    void updateSkipsUnloadedAndWritesLoadedNull() throws SQLException {
+        Doc doc = selectById(2);
+        doc.setTitle("changed");
+        assertEquals(1, JDBCUtils.update(doc));
+        assertEquals("changed", primaryValue(2, "title"));
+        assertEquals("text", primaryValue(2, "body"));
+
+        assertEquals("text", JDBCUtils.load(doc, Doc::getBody));
+        doc.setBody(null);
+        assertEquals(1, JDBCUtils.update(doc));
+        assertNull(primaryValue(2, "body"));
+    }
+
+    @Test
+    void saveWritesOnlyLoadedColumns() throws SQLException {
+        Doc doc = selectById(3);
+        doc.setTitle("saved");
+        JDBCUtils.save(doc);
+        assertEquals("saved", primaryValue(3, "title"));
+        assertEquals("keep", primaryValue(3, "body"));
+        assertArrayEquals(new byte[]{1}, (byte[]) primaryValue(3, "payload"));
+
+        // 没有未加载字段时整行覆盖
+        Doc created = new Doc();
+        created.setId(3);
+        created.setTitle("replaced");
+        JDBCUtils.save(created);
+        assertEquals("replaced", primaryValue(3, "title"));
+        assertNull(primaryValue(3, "body"));
+    }
+
+    @Test
+    void streamsLazyColumns() throws IOException {
+        Doc doc = selectById(5);
+        try (Reader reader = JDBCUtils.openReader(doc, Doc::getBody)) {
+            assertNotNull(reader);
+            StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            assertEquals("streamed text", writer.toString());
+        }
+        try (InputStream in = JDBCUtils.openInputStream(doc, Doc::getData)) {
+            assertNotNull(in);
+            assertArrayEquals(new byte[]{10, 11, 12}, in.readAllBytes());
+        }
+        assertNull(JDBCUtils.openReader(selectById(1), Doc::getBody));
+        // 流式读取不写回实体
+        assertNull(doc.getBody());
+    }
+
+    @Test
+    void streamsFromTransactionConnection() throws IOException {
+        JDBCUtils.beginTransaction();
+        try {
+            Doc doc = selectById(5);
+            doc.setBody("uncommitted");
+            assertEquals(1, JDBCUtils.update(doc));
+            try (Reader reader = JDBCUtils.openReader(doc, Doc::getBody)) {
+                StringWriter writer = new StringWriter();
+                reader.transferTo(writer);
+                assertEquals("uncommitted", writer.toString());
+            }
+            // 游标关闭后事务连接仍可使用
+            assertNotNull(selectById(5));
+        } finally {
+            JDBCUtils.rollback();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ls_mybatis.utils;
+
+import ls_mybatis.annotation.Id;
+import ls_mybatis.annotation.Table;
+import ls_mybatis.core.QueryWrapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JDBCUtilsReadWriteTest {
+
+    @Table("rw_user")
+    public static class RwUser {
+        @Id
+        private int id;
+        private String name;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    // 主库和两个从库各放一行不同的数据，用来识别查询命中的库
+    @BeforeAll
+    static void createTables() throws SQLException {
+        for (String db : new String[]{"primary", "replica0", "replica1"}) {
+            try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:" + db + ";DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE rw_user(id INT PRIMARY KEY, name VARCHAR(20))");
+                stmt.execute("INSERT INTO rw_user VALUES (1, '" + db + "')");
+            }
+        }
+    }
+
+    @Test
+    void selectsAreSpreadOverReplicas() {
+        Set<String> served = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            served.add(JDBCUtils.select(RwUser.class).get(0).getName());
+        }
+        assertEquals(Set.of("replica0", "replica1"), served);
+    }
+
+    @Test
+    void transactionReadsItsOwnWritesAndRollsBack() {
+        JDBCUtils.beginTransaction();
+        try {
+            RwUser user = new RwUser();
+            user.setId(2);
+            user.setName("pending");
+            assertEquals(1, JDBCUtils.insert(user));
+            QueryWrapper<RwUser> wrapper = new QueryWrapper<>(RwUser.class);
+            wrapper.eq(RwUser::getName, "pending");
+            assertNotNull(JDBCUtils.selectOne(RwUser.class, wrapper));
+        } finally {
+            JDBCUtils.rollback();
+        }
+        JDBCUtils.beginTransaction();
+        try {
+            List<RwUser> users = JDBCUtils.select(RwUser.class);
+            assertEquals(1, users.size());
+            assertEquals("primary", users.get(0).getName());
+        } finally {
+            JDBCUtils.commit();
+        }
+    }
+
+    @Test
+    void commitWithoutTransactionFails() {
+        assertThrows(IllegalStateException.class, JDBCUtils::commit);
+    }
+}